@@ -0,0 +1,65 @@
+package dev.flaviojunior.benchmark;
+
+import dev.flaviojunior.domain.Author;
+import dev.flaviojunior.domain.Book;
+import dev.flaviojunior.domain.Category;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to link the books of a prolific author and of a large category, then to unlink half of them, with the stable
+ * hash code of the entities against a constant, which was the hash code of the entities before, and which puts every
+ * book of a set in the same bucket.
+ * <p>
+ * The books are linked before they are persisted, like the import and the bulk create do, so their ids are only
+ * allocated afterwards: the half which is unlinked has been given its id and a new title in between, which must not
+ * move it out of its buckets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookAssociationBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    private int books;
+
+    @Param({ "stable", "constant" })
+    private String hashCode;
+
+    @Benchmark
+    public int linkAndUnlink() {
+        Author author = new Author().firstName("First name").lastName("Last name");
+        Category category = new Category().name("Category");
+        Book[] linked = new Book[books];
+        for (int i = 0; i < books; i++) {
+            Book book = "constant".equals(hashCode) ? new ConstantHashCodeBook() : new Book();
+            linked[i] = book.title("Title " + i).isbn(String.format("979%010d", i)).addAuthor(author).addCategory(category);
+        }
+        for (int i = 0; i < books; i += 2) {
+            linked[i].setId((long) i + 1);
+            linked[i].setTitle("Renamed " + i);
+            linked[i].removeAuthor(author).removeCategory(category);
+        }
+        return author.getBooks().size() + category.getBooks().size();
+    }
+
+    /**
+     * Book with the former hash code of the entities, the same for every instance.
+     */
+    private static class ConstantHashCodeBook extends Book {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public int hashCode() {
+            return Book.class.hashCode();
+        }
+    }
+}
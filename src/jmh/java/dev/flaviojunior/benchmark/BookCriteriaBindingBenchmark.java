@@ -0,0 +1,64 @@
+package dev.flaviojunior.benchmark;
+
+import dev.flaviojunior.config.DateTimeFormatConfiguration;
+import dev.flaviojunior.service.criteria.BookCriteria;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of binding a {@link BookCriteria} from the query string of a request, as Spring MVC does for the criteria
+ * parameter of the book list endpoints: the parameters are decoded, then bound through a {@link WebDataBinder} with
+ * the conversion service of the application, which grows the filters and converts their values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BookCriteriaBindingBenchmark {
+
+    @Param(
+        {
+            "title.contains=lord&page=0&size=20",
+            "title.contains=lord&isbn.specified=true&dateOfPublication.greaterThanOrEqual=2000-01-01" +
+            "&authorId.in=1,2,3&categoryId.equals=4&publisher.in=Allen%20%26%20Unwin,HarperCollins&page=3&size=20&sort=title,asc",
+        }
+    )
+    private String queryString;
+
+    private DefaultFormattingConversionService conversionService;
+
+    @Setup
+    public void setUp() {
+        conversionService = new DefaultFormattingConversionService();
+        new DateTimeFormatConfiguration().addFormatters(conversionService);
+    }
+
+    @Benchmark
+    public BookCriteria bind() {
+        MultiValueMap<String, String> parameters = UriComponentsBuilder.newInstance().query(queryString).build().getQueryParams();
+        MutablePropertyValues values = new MutablePropertyValues();
+        parameters.forEach((name, encodedValues) -> {
+            String[] decodedValues = encodedValues.stream().map(value -> UriUtils.decode(value, StandardCharsets.UTF_8)).toArray(String[]::new);
+            values.add(UriUtils.decode(name, StandardCharsets.UTF_8), decodedValues.length == 1 ? decodedValues[0] : decodedValues);
+        });
+        BookCriteria criteria = new BookCriteria();
+        WebDataBinder binder = new WebDataBinder(criteria, "bookCriteria");
+        binder.setConversionService(conversionService);
+        binder.bind(values);
+        return criteria;
+    }
+}
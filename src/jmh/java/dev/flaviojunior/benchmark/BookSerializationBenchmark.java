@@ -0,0 +1,124 @@
+package dev.flaviojunior.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import dev.flaviojunior.domain.Author;
+import dev.flaviojunior.domain.Book;
+import dev.flaviojunior.domain.Category;
+import dev.flaviojunior.service.dto.BookDTO;
+import dev.flaviojunior.service.mapper.AuthorMapperImpl;
+import dev.flaviojunior.service.mapper.BookMapper;
+import dev.flaviojunior.service.mapper.BookMapperImpl;
+import dev.flaviojunior.service.mapper.CategoryMapperImpl;
+import org.hibernate.collection.internal.PersistentSet;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization throughput of a page of books, as the REST resources write it: entities through the
+ * {@link Hibernate5Module}, which inspects every property for proxies and persistent collections, against entities
+ * without the module, and against DTOs.
+ * <p>
+ * The relationships of the entities are wrapped in initialized {@link PersistentSet}, like the ones of a page loaded
+ * with its relationships, so the module takes the same paths as for managed entities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BookSerializationBenchmark {
+
+    @Param({ "20", "100" })
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+
+    private ObjectMapper objectMapperWithoutHibernateModule;
+
+    private AnnotationConfigApplicationContext mappers;
+
+    private BookMapper bookMapper;
+
+    private List<Book> books;
+
+    private List<BookDTO> bookDTOs;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule()).registerModule(new Hibernate5Module());
+        objectMapperWithoutHibernateModule = new ObjectMapper().registerModule(new JavaTimeModule());
+        // The generated mappers are Spring components, which get the mappers they use injected
+        mappers = new AnnotationConfigApplicationContext(BookMapperImpl.class, AuthorMapperImpl.class, CategoryMapperImpl.class);
+        bookMapper = mappers.getBean(BookMapper.class);
+        books = new ArrayList<>(pageSize);
+        for (long i = 0; i < pageSize; i++) {
+            books.add(book(i));
+        }
+        bookDTOs = bookMapper.toDto(books);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mappers.close();
+    }
+
+    @Benchmark
+    public byte[] serializeEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] serializeEntitiesWithoutHibernateModule() throws JsonProcessingException {
+        return objectMapperWithoutHibernateModule.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] serializeDtos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookDTOs);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerializeDtos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookMapper.toDto(books));
+    }
+
+    private static Book book(long id) {
+        Set<Author> authors = new HashSet<>();
+        for (long i = 0; i < 2; i++) {
+            authors.add(new Author().id(id * 2 + i).firstName("First name " + i).lastName("Last name " + id));
+        }
+        Set<Category> categories = new HashSet<>();
+        categories.add(new Category().id(id % 10).name("Category " + id % 10));
+        return new Book()
+            .id(id)
+            .title("Title " + id)
+            .isbn(String.format("978%010d", id))
+            .imagePath("/images/" + id + ".jpg")
+            .publisher("Publisher " + id % 7)
+            .dateOfPublication(LocalDate.of(2000, 1, 1).plusDays(id))
+            .authors(persistentSet(authors))
+            .categories(persistentSet(categories));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Set<E> persistentSet(Set<E> elements) {
+        return new PersistentSet((SharedSessionContractImplementor) null, elements);
+    }
+}
@@ -0,0 +1,138 @@
+package dev.flaviojunior.benchmark;
+
+import dev.flaviojunior.LibraryServiceApplication;
+import dev.flaviojunior.domain.Book;
+import dev.flaviojunior.service.BookQueryService;
+import dev.flaviojunior.service.criteria.BookCriteria;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a {@link BookCriteria} into a query: building the {@link Specification}, then rendering it into a
+ * JPA criteria query which Hibernate compiles, or takes from its query plan cache.
+ * <p>
+ * The application is started against an in-memory H2 database, so the entity manager is the one of the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BookSpecificationBenchmark {
+
+    /**
+     * Arguments starting the application on an in-memory H2 database, without the config server nor Eureka.
+     */
+    private static final String[] H2_ARGUMENTS = {
+        "--server.port=0",
+        "--eureka.client.enabled=false",
+        "--spring.cloud.config.enabled=false",
+        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "--spring.datasource.username=sa",
+        "--spring.datasource.password=",
+        "--spring.jpa.database-platform=dev.flaviojunior.config.dialect.H2FullTextDialect",
+        "--spring.jpa.hibernate.ddl-auto=update",
+        "--logging.level.root=WARN",
+    };
+
+    @Param({ "empty", "title", "search", "full" })
+    private String filters;
+
+    private ConfigurableApplicationContext context;
+
+    private EntityManager entityManager;
+
+    private SpecificationFactory specificationFactory;
+
+    private BookCriteria criteria;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(LibraryServiceApplication.class).run(H2_ARGUMENTS);
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        specificationFactory = new SpecificationFactory();
+        criteria = criteria(filters);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public Specification<Book> createSpecification() {
+        return specificationFactory.createSpecification(criteria);
+    }
+
+    @Benchmark
+    public TypedQuery<Book> createQuery() {
+        Specification<Book> specification = specificationFactory.createSpecification(criteria);
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = builder.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query);
+    }
+
+    private static BookCriteria criteria(String filters) {
+        BookCriteria criteria = new BookCriteria();
+        switch (filters) {
+            case "empty":
+                break;
+            case "title":
+                criteria.title().setContains("lord");
+                break;
+            case "search":
+                criteria.title().setSearch("lord rings");
+                break;
+            case "full":
+                criteria.title().setContains("lord");
+                criteria.isbn().setSpecified(true);
+                criteria.dateOfPublication().setGreaterThanOrEqual(LocalDate.of(2000, 1, 1));
+                criteria.authorId().setIn(Arrays.asList(1L, 2L, 3L));
+                criteria.categoryId().setEquals(4L);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown filters " + filters);
+        }
+        return criteria;
+    }
+
+    /**
+     * Exposes the specifications of the query service, which need none of its dependencies.
+     */
+    private static final class SpecificationFactory extends BookQueryService {
+
+        SpecificationFactory() {
+            super(null, null, null, null, null, null);
+        }
+
+        @Override
+        protected Specification<Book> createSpecification(BookCriteria criteria) {
+            return super.createSpecification(criteria);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package dev.flaviojunior.benchmark;
+
+import dev.flaviojunior.LibraryServiceApplication;
+import dev.flaviojunior.service.BookImportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the read API of {@code LibraryResource} in each {@code application.execution-mode}, under more
+ * concurrent clients than the Tomcat pool has threads.
+ * <p>
+ * The application is started against an in-memory H2 database seeded with {@code books.csv}, and the books are listed
+ * without a count, which is the list read from the database on every request. The {@code virtual} mode needs a Java
+ * 21 runtime, run it with {@code ./gradlew jmh -Pjmh.includes=LibraryReadExecution -Pjmh.jvm=<java 21 executable>}.
+ * H2 answers without any network latency, so the requests wait much less than on PostgreSQL, which is where virtual
+ * threads help most.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(256)
+public class LibraryReadExecutionBenchmark {
+
+    private static final int PAGES = 10;
+
+    /**
+     * Arguments starting the application on an in-memory H2 database, without the config server nor Eureka. The
+     * Tomcat pool is kept small, so the clients outnumber its threads.
+     */
+    private static final String[] H2_ARGUMENTS = {
+        "--server.port=0",
+        "--server.tomcat.threads.max=32",
+        "--eureka.client.enabled=false",
+        "--spring.cloud.config.enabled=false",
+        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "--spring.datasource.username=sa",
+        "--spring.datasource.password=",
+        "--spring.jpa.database-platform=dev.flaviojunior.config.dialect.H2FullTextDialect",
+        "--spring.jpa.hibernate.ddl-auto=update",
+        "--logging.level.root=WARN",
+    };
+
+    @Param({ "platform", "virtual" })
+    private String executionMode;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private String baseUrl;
+
+    @Setup
+    public void setUp() throws IOException {
+        String[] arguments = new String[H2_ARGUMENTS.length + 1];
+        System.arraycopy(H2_ARGUMENTS, 0, arguments, 0, H2_ARGUMENTS.length);
+        arguments[H2_ARGUMENTS.length] = "--application.execution-mode=" + executionMode;
+        context = new SpringApplicationBuilder(LibraryServiceApplication.class).run(arguments);
+        try (InputStream books = LibraryReadExecutionBenchmark.class.getResourceAsStream("/books.csv")) {
+            context.getBean(BookImportService.class).importCsv(books);
+        }
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int listBooks() throws IOException, InterruptedException {
+        int page = ThreadLocalRandom.current().nextInt(PAGES);
+        HttpRequest request = HttpRequest
+            .newBuilder(URI.create(baseUrl + "/api/library/books?count=none&size=20&page=" + page))
+            .timeout(Duration.ofSeconds(30))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,49 @@
+package dev.flaviojunior.benchmark;
+
+import dev.flaviojunior.common.web.util.PaginationUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link PaginationUtil#generatePaginationHttpHeaders(UriComponentsBuilder, Page)} for the first page, which
+ * has no previous link, and for a page in the middle, which has all four links.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PaginationHeadersBenchmark {
+
+    private static final String REQUEST_URI = "http://localhost:8083/api/books?title.contains=lord&page=5&size=20&sort=title,asc";
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({ "0", "5" })
+    private int pageNumber;
+
+    private Page<Long> page;
+
+    @Setup
+    public void setUp() {
+        page = new PageImpl<>(Collections.nCopies(PAGE_SIZE, 1L), PageRequest.of(pageNumber, PAGE_SIZE), 1000);
+    }
+
+    @Benchmark
+    public HttpHeaders generatePaginationHttpHeaders() {
+        // The resources get a new builder for each request
+        return PaginationUtil.generatePaginationHttpHeaders(UriComponentsBuilder.fromUriString(REQUEST_URI), page);
+    }
+}
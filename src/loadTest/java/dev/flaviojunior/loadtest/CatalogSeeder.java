@@ -0,0 +1,118 @@
+package dev.flaviojunior.loadtest;
+
+import dev.flaviojunior.common.util.CsvReader;
+import dev.flaviojunior.common.util.CsvWriter;
+import dev.flaviojunior.service.BookImportService;
+import dev.flaviojunior.service.dto.BookImportResultDTO;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Seeds the catalog with {@code books.csv} scaled up: the file is copied over and over, each copy with its own titles
+ * and isbns, and the result is imported through the {@link BookImportService}.
+ * <p>
+ * The authors, genres and publishers are those of the file, so the relationships grow with the books while the number
+ * of authors and categories stays the same, as in a real catalog.
+ */
+class CatalogSeeder {
+
+    private static final String SOURCE = "/books.csv";
+
+    private static final List<String> HEADER = Arrays.asList("Title", "Author", "Genre", "Publisher", "ISBN");
+
+    private final BookImportService bookImportService;
+
+    CatalogSeeder(BookImportService bookImportService) {
+        this.bookImportService = bookImportService;
+    }
+
+    /**
+     * The isbn of the book at the given index of the seeded catalog.
+     *
+     * @param index the index of the book, from 0.
+     * @return the isbn, 13 digits which are not a valid isbn, so they can not collide with a real book.
+     */
+    static String isbn(long index) {
+        return String.format(Locale.ROOT, "979%010d", index);
+    }
+
+    /**
+     * Seed the catalog.
+     *
+     * @param copies the number of copies of {@code books.csv}.
+     * @return the summary of the import, the isbns of the books are {@link #isbn(long)} of 0 to the books imported.
+     * @throws IOException if the scaled file can not be written or read.
+     */
+    BookImportResultDTO seed(int copies) throws IOException {
+        List<List<String>> rows = readSource();
+        Path file = Files.createTempFile("books-", ".csv");
+        try {
+            writeScaled(file, rows, copies);
+            try (InputStream inputStream = Files.newInputStream(file)) {
+                return bookImportService.importCsv(inputStream);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<List<String>> readSource() throws IOException {
+        InputStream inputStream = CatalogSeeder.class.getResourceAsStream(SOURCE);
+        if (inputStream == null) {
+            throw new IllegalStateException(SOURCE + " is not on the classpath");
+        }
+        List<List<String>> rows = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)))) {
+            List<String> header = lowerCase(reader.readRecord());
+            int title = header.indexOf("title");
+            int author = header.indexOf("author");
+            int genre = header.indexOf("genre");
+            int publisher = header.indexOf("publisher");
+            for (List<String> record = reader.readRecord(); record != null; record = reader.readRecord()) {
+                // The rows without a title would not be imported, and would leave holes in the isbns
+                if (field(record, title) == null || field(record, title).isBlank()) {
+                    continue;
+                }
+                rows.add(Arrays.asList(field(record, title), field(record, author), field(record, genre), field(record, publisher)));
+            }
+        }
+        return rows;
+    }
+
+    private static void writeScaled(Path file, List<List<String>> rows, int copies) throws IOException {
+        try (CsvWriter writer = new CsvWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            writer.writeRecord(HEADER);
+            long index = 0;
+            for (int copy = 0; copy < copies; copy++) {
+                for (List<String> row : rows) {
+                    String title = copy == 0 ? row.get(0) : row.get(0) + " - volume " + (copy + 1);
+                    writer.writeRecord(Arrays.asList(title, row.get(1), row.get(2), row.get(3), isbn(index++)));
+                }
+            }
+        }
+    }
+
+    private static List<String> lowerCase(List<String> header) {
+        List<String> names = new ArrayList<>();
+        if (header != null) {
+            for (String name : header) {
+                names.add(name.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return names;
+    }
+
+    private static String field(List<String> record, int index) {
+        return index >= 0 && index < record.size() ? record.get(index) : null;
+    }
+}
@@ -0,0 +1,263 @@
+package dev.flaviojunior.loadtest;
+
+import dev.flaviojunior.LibraryServiceApplication;
+import dev.flaviojunior.service.BookImportService;
+import dev.flaviojunior.service.dto.BookImportResultDTO;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Load test of the read endpoints of the service.
+ * <p>
+ * The application is started against an in-memory H2 database and seeded by the {@link CatalogSeeder}, then a pool of
+ * clients calls {@code /api/books}, {@code /api/library/books}, {@code /api/library/books/{isbn}/isbn} and
+ * {@code /api/books/count} at random, each client sending its next request as soon as the previous one is answered.
+ * After a warm-up, the latency of every request is recorded in a histogram per endpoint, and the percentiles and
+ * throughput of each endpoint are reported.
+ * <p>
+ * The options are system properties, passed by {@code ./gradlew loadTest -PloadTest.<option>=<value>}:
+ * <ul>
+ *     <li>{@code copies}: copies of {@code books.csv} seeded, of about 200 books each (default 5000).</li>
+ *     <li>{@code threads}: concurrent clients (default 16).</li>
+ *     <li>{@code warmupSeconds}: duration of the warm-up, which is not recorded (default 30).</li>
+ *     <li>{@code durationSeconds}: duration of the measurement (default 60).</li>
+ *     <li>{@code pages}: pages of {@code /api/books} requested, from the first (default 50).</li>
+ *     <li>{@code seed}: seed of the random choices, so that runs are repeatable (default 42).</li>
+ *     <li>{@code executionMode}: {@code application.execution-mode} of the service, {@code platform} (default) or
+ *     {@code virtual}, which needs {@code -PloadTest.javaVersion=21}.</li>
+ *     <li>{@code reportDir}: directory where the full percentile distribution of each endpoint is written.</li>
+ * </ul>
+ * As the clients wait for the responses, the latencies do not include the time a request would have waited for a
+ * client: they tell how fast the service answers under this concurrency, not at a given arrival rate.
+ */
+public final class LoadTest {
+
+    private static final String OPTION_PREFIX = "loadTest.";
+
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * Arguments starting the application on an in-memory H2 database, without the config server nor Eureka.
+     */
+    private static final String[] H2_ARGUMENTS = {
+        "--server.port=0",
+        "--eureka.client.enabled=false",
+        "--spring.cloud.config.enabled=false",
+        "--spring.datasource.url=jdbc:h2:mem:load-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "--spring.datasource.username=sa",
+        "--spring.datasource.password=",
+        "--spring.jpa.database-platform=dev.flaviojunior.config.dialect.H2FullTextDialect",
+        "--spring.jpa.hibernate.ddl-auto=update",
+        "--logging.level.root=WARN",
+    };
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int copies = Integer.getInteger(OPTION_PREFIX + "copies", 5000);
+        int threads = Integer.getInteger(OPTION_PREFIX + "threads", 16);
+        Duration warmup = Duration.ofSeconds(Long.getLong(OPTION_PREFIX + "warmupSeconds", 30));
+        Duration duration = Duration.ofSeconds(Long.getLong(OPTION_PREFIX + "durationSeconds", 60));
+        int pages = Integer.getInteger(OPTION_PREFIX + "pages", 50);
+        long seed = Long.getLong(OPTION_PREFIX + "seed", 42);
+        String executionMode = System.getProperty(OPTION_PREFIX + "executionMode", "platform");
+        Path reportDir = Paths.get(System.getProperty(OPTION_PREFIX + "reportDir", "load-test"));
+
+        List<String> arguments = new ArrayList<>(Arrays.asList(H2_ARGUMENTS));
+        arguments.add("--application.execution-mode=" + executionMode);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryServiceApplication.class).run(arguments.toArray(new String[0]))) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+            BookImportResultDTO seeded = new CatalogSeeder(context.getBean(BookImportService.class)).seed(copies);
+            System.out.printf(
+                Locale.ROOT,
+                "Seeded %d books, %d authors and %d categories in %d ms%n",
+                seeded.getBooksImported(),
+                seeded.getAuthorsCreated(),
+                seeded.getCategoriesCreated(),
+                seeded.getElapsedMillis()
+            );
+
+            long books = seeded.getBooksImported();
+            int bookPages = (int) Math.max(1, Math.min(pages, (books + PAGE_SIZE - 1) / PAGE_SIZE));
+            List<Endpoint> endpoints = Arrays.asList(
+                new Endpoint("GET /api/books", random -> URI.create(baseUrl + "/api/books?page=" + random.nextInt(bookPages) + "&size=" + PAGE_SIZE)),
+                new Endpoint(
+                    "GET /api/library/books?count=none",
+                    random -> URI.create(baseUrl + "/api/library/books?count=none&page=" + random.nextInt(bookPages) + "&size=" + PAGE_SIZE)
+                ),
+                new Endpoint(
+                    "GET /api/library/books/{isbn}/isbn",
+                    random -> URI.create(baseUrl + "/api/library/books/" + CatalogSeeder.isbn(random.nextLong(books)) + "/isbn")
+                ),
+                new Endpoint("GET /api/books/count", random -> URI.create(baseUrl + "/api/books/count"))
+            );
+
+            System.out.printf(Locale.ROOT, "Running %d clients in the %s execution mode on Java %s%n", threads, executionMode, System.getProperty("java.version"));
+            run(endpoints, threads, warmup, duration, seed);
+            report(endpoints, duration, System.out);
+            writeDistributions(endpoints, reportDir);
+        }
+    }
+
+    private static void run(List<Endpoint> endpoints, int threads, Duration warmup, Duration duration, long seed)
+        throws InterruptedException, ExecutionException {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(10)).build();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<Recording>>> clients = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                SplittableRandom random = new SplittableRandom(seed + i);
+                clients.add(executor.submit(() -> drive(client, endpoints, random, measureFrom, measureUntil)));
+            }
+            for (Future<List<Recording>> recordings : clients) {
+                List<Recording> recorded = recordings.get();
+                for (int i = 0; i < endpoints.size(); i++) {
+                    endpoints.get(i).add(recorded.get(i));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Send requests to random endpoints until the end of the measurement.
+     *
+     * @return the recording of each endpoint, in the order of the endpoints.
+     */
+    private static List<Recording> drive(HttpClient client, List<Endpoint> endpoints, SplittableRandom random, long measureFrom, long measureUntil)
+        throws InterruptedException {
+        List<Recording> recordings = new ArrayList<>();
+        for (int i = 0; i < endpoints.size(); i++) {
+            recordings.add(new Recording());
+        }
+        for (long start = System.nanoTime(); start < measureUntil; start = System.nanoTime()) {
+            int index = random.nextInt(endpoints.size());
+            HttpRequest request = HttpRequest
+                .newBuilder(endpoints.get(index).uri.apply(random))
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .build();
+            boolean failed;
+            try {
+                failed = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200;
+            } catch (IOException e) {
+                failed = true;
+            }
+            if (start >= measureFrom) {
+                recordings.get(index).record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), failed);
+            }
+        }
+        return recordings;
+    }
+
+    private static void report(List<Endpoint> endpoints, Duration duration, PrintStream out) {
+        out.printf(
+            Locale.ROOT,
+            "%n%-36s %10s %8s %10s %10s %10s %10s %10s%n",
+            "Endpoint",
+            "Requests",
+            "Errors",
+            "Req/s",
+            "p50 (ms)",
+            "p99 (ms)",
+            "p99.9 (ms)",
+            "max (ms)"
+        );
+        for (Endpoint endpoint : endpoints) {
+            Histogram latencies = endpoint.recording.latencies;
+            out.printf(
+                Locale.ROOT,
+                "%-36s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                endpoint.name,
+                latencies.getTotalCount(),
+                endpoint.recording.errors,
+                latencies.getTotalCount() / (duration.toMillis() / 1000.0),
+                latencies.getValueAtPercentile(50) / 1000.0,
+                latencies.getValueAtPercentile(99) / 1000.0,
+                latencies.getValueAtPercentile(99.9) / 1000.0,
+                latencies.getMaxValue() / 1000.0
+            );
+        }
+    }
+
+    /**
+     * Write the percentile distribution of each endpoint in the HdrHistogram format, which can be plotted.
+     */
+    private static void writeDistributions(List<Endpoint> endpoints, Path reportDir) throws IOException {
+        Files.createDirectories(reportDir);
+        for (Endpoint endpoint : endpoints) {
+            String fileName = endpoint.name.replaceAll("[^A-Za-z0-9]+", "-").replaceAll("^-|-$", "").toLowerCase(Locale.ROOT) + ".hgrm";
+            Path file = reportDir.resolve(fileName);
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+                // Latencies are recorded in microseconds and written in milliseconds
+                endpoint.recording.latencies.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        System.out.println("\nPercentile distributions written to " + reportDir.toAbsolutePath());
+    }
+
+    private static final class Endpoint {
+
+        private final String name;
+
+        private final Function<SplittableRandom, URI> uri;
+
+        private final Recording recording = new Recording();
+
+        private Endpoint(String name, Function<SplittableRandom, URI> uri) {
+            this.name = name;
+            this.uri = uri;
+        }
+
+        private void add(Recording other) {
+            recording.latencies.add(other.latencies);
+            recording.errors += other.errors;
+        }
+    }
+
+    /**
+     * Latencies and errors of an endpoint, recorded by a single client.
+     */
+    private static final class Recording {
+
+        private final Histogram latencies = new Histogram(3);
+
+        private long errors;
+
+        private void record(long micros, boolean failed) {
+            latencies.recordValue(micros);
+            if (failed) {
+                errors++;
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package dev.flaviojunior.aop.metrics;
+
+import dev.flaviojunior.common.service.Criteria;
+import dev.flaviojunior.common.service.CriteriaShape;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+
+/**
+ * Aspect timing the queries of the {@link dev.flaviojunior.common.service.QueryService} subclasses.
+ * <p>
+ * Every public method taking a {@link Criteria} first is timed as {@value #METRIC_NAME}, tagged by service, method,
+ * {@link CriteriaShape shape} of the criteria and exception: the queries of one shape share a plan, so their timings
+ * are comparable while the values filtered on would make too many series.
+ */
+@Aspect
+public class QueryMetricsAspect {
+
+    public static final String METRIC_NAME = "library.query";
+
+    /**
+     * Shape tag of the criteria which filter on nothing.
+     */
+    static final String NO_SHAPE = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    public QueryMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Pointcut that matches the public methods of the query services.
+     */
+    @Pointcut("execution(public * dev.flaviojunior.common.service.QueryService+.*(..))")
+    public void queryServicePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice that times a query by the shape of its criteria.
+     *
+     * @param joinPoint join point for advice.
+     * @return the result of the query.
+     * @throws Throwable what the query throws.
+     */
+    @Around("queryServicePointcut()")
+    public Object timeQuery(ProceedingJoinPoint joinPoint) throws Throwable {
+        Class<?>[] parameterTypes = ((MethodSignature) joinPoint.getSignature()).getParameterTypes();
+        if (parameterTypes.length == 0 || !Criteria.class.isAssignableFrom(parameterTypes[0])) {
+            return joinPoint.proceed();
+        }
+        String shape = CriteriaShape.of((Criteria) joinPoint.getArgs()[0]);
+        Tags tags = Tags.of(
+            "service",
+            joinPoint.getTarget().getClass().getSimpleName(),
+            "method",
+            joinPoint.getSignature().getName(),
+            "shape",
+            shape.isEmpty() ? NO_SHAPE : shape
+        );
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer(METRIC_NAME, tags.and("exception", exception)));
+        }
+    }
+}
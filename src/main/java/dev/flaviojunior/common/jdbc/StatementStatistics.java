@@ -0,0 +1,77 @@
+package dev.flaviojunior.common.jdbc;
+
+/**
+ * Statements executed, and rows read or written, by the current thread while it handles a unit of work, such as an
+ * HTTP request.
+ * <p>
+ * The statistics are only gathered between {@link #begin()} and {@link #end()}, and are then updated by the
+ * {@link StatementStatisticsListener} of the proxied data source.
+ */
+public final class StatementStatistics {
+
+    private static final ThreadLocal<StatementStatistics> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+
+    private long rows;
+
+    private long elapsedMillis;
+
+    private StatementStatistics() {
+    }
+
+    /**
+     * Start gathering the statistics of the current thread, from zero.
+     *
+     * @return the statistics of the current thread.
+     */
+    public static StatementStatistics begin() {
+        StatementStatistics statistics = new StatementStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * @return the statistics of the current thread, or {@code null} if they are not gathered.
+     */
+    public static StatementStatistics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Stop gathering the statistics of the current thread.
+     */
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    void addStatement(long elapsedMillis) {
+        this.statements++;
+        this.elapsedMillis += elapsedMillis;
+    }
+
+    void addRows(long rows) {
+        this.rows += rows;
+    }
+
+    /**
+     * @return the number of statements executed, a batch counting as one.
+     */
+    public long getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return the number of rows read from the results, and of rows written.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return the time spent executing the statements, in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
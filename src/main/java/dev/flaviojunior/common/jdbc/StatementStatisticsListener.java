@@ -0,0 +1,114 @@
+package dev.flaviojunior.common.jdbc;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Listener of a data source proxy, which updates the {@link StatementStatistics} of the current thread and logs the
+ * statements slower than a threshold, with their parameters if asked.
+ * <p>
+ * The rows read are counted as the results are read, so only when the result sets are proxied too and this listener
+ * is registered as their method listener.
+ */
+public class StatementStatisticsListener implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final String NEXT = "next";
+
+    /**
+     * Number of parameter sets logged for a batch, which can have thousands.
+     */
+    private static final int MAX_LOGGED_PARAMETER_SETS = 3;
+
+    private final Logger log = LoggerFactory.getLogger(StatementStatisticsListener.class);
+
+    private final long slowQueryThresholdMillis;
+
+    private final boolean logParameters;
+
+    /**
+     * @param slowQueryThresholdMillis the duration from which a statement is logged as slow, in milliseconds.
+     * @param logParameters            whether the bound parameters of the slow statements are logged.
+     */
+    public StatementStatisticsListener(long slowQueryThresholdMillis, boolean logParameters) {
+        this.slowQueryThresholdMillis = slowQueryThresholdMillis;
+        this.logParameters = logParameters;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // Nothing to do before the execution
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        StatementStatistics statistics = StatementStatistics.current();
+        if (statistics != null) {
+            statistics.addStatement(execInfo.getElapsedTime());
+            statistics.addRows(rowsWritten(execInfo.getResult()));
+        }
+        if (execInfo.getElapsedTime() >= slowQueryThresholdMillis) {
+            log.warn("Slow query ({} ms): {}", execInfo.getElapsedTime(), describe(queryInfoList));
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+        // Nothing to do before the call
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+            && NEXT.equals(executionContext.getMethod().getName())
+            && Boolean.TRUE.equals(executionContext.getResult())) {
+            StatementStatistics statistics = StatementStatistics.current();
+            if (statistics != null) {
+                statistics.addRows(1);
+            }
+        }
+    }
+
+    private static long rowsWritten(Object result) {
+        if (result instanceof Number) {
+            return Math.max(0, ((Number) result).longValue());
+        }
+        long rows = 0;
+        if (result instanceof int[]) {
+            for (int count : (int[]) result) {
+                rows += Math.max(0, count);
+            }
+        }
+        return rows;
+    }
+
+    private String describe(List<QueryInfo> queryInfoList) {
+        return queryInfoList.stream().map(this::describeQuery).collect(Collectors.joining("; "));
+    }
+
+    private String describeQuery(QueryInfo queryInfo) {
+        StringBuilder description = new StringBuilder(queryInfo.getQuery());
+        if (!logParameters) {
+            return description.toString();
+        }
+        List<List<ParameterSetOperation>> parametersList = queryInfo.getParametersList();
+        for (List<ParameterSetOperation> parameters : parametersList.subList(0, Math.min(parametersList.size(), MAX_LOGGED_PARAMETER_SETS))) {
+            description.append(' ').append(
+                parameters.stream().map(parameter -> String.valueOf(parameter.getArgs()[1])).collect(Collectors.joining(", ", "[", "]"))
+            );
+        }
+        if (parametersList.size() > MAX_LOGGED_PARAMETER_SETS) {
+            description.append(" and ").append(parametersList.size() - MAX_LOGGED_PARAMETER_SETS).append(" more parameter sets");
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,94 @@
+package dev.flaviojunior.common.service;
+
+import dev.flaviojunior.common.service.filter.Filter;
+import dev.flaviojunior.common.service.filter.StringFilter;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Structural key of a {@link Criteria}: which filters and operators are set, without their values.
+ * <p>
+ * Two criteria with the same shape are rendered to the same query once the values are bound as parameters and the
+ * {@code in} lists are padded to the next power of two, so the shape identifies the query plan Hibernate reuses.
+ */
+public final class CriteriaShape {
+
+    private static final String SEARCH_OPERATOR = "search";
+
+    private static final ClassValue<List<Field>> FIELDS = new ClassValue<>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return Collections.unmodifiableList(fields);
+        }
+    };
+
+    private CriteriaShape() {
+    }
+
+    /**
+     * Compute the shape of a criteria.
+     *
+     * @param criteria the criteria, can be {@code null}.
+     * @return the shape, empty when nothing is filtered.
+     */
+    public static String of(Criteria criteria) {
+        if (criteria == null) {
+            return "";
+        }
+        StringBuilder shape = new StringBuilder();
+        for (Field field : FIELDS.get(criteria.getClass())) {
+            Object filter = read(field, criteria);
+            if (filter instanceof Filter) {
+                appendFilter(shape, field.getName(), (Filter<?>) filter);
+            }
+        }
+        return shape.toString();
+    }
+
+    private static void appendFilter(StringBuilder shape, String name, Filter<?> filter) {
+        for (Field operator : FIELDS.get(filter.getClass())) {
+            Object value = read(operator, filter);
+            if (value == null) {
+                continue;
+            }
+            shape.append(name).append('.').append(operator.getName());
+            if (value instanceof Collection) {
+                // Matches hibernate.query.in_clause_parameter_padding
+                shape.append('[').append(padding(((Collection<?>) value).size())).append(']');
+            } else if (value instanceof Boolean) {
+                // specified=true and specified=false are different predicates
+                shape.append('=').append(value);
+            } else if (filter instanceof StringFilter && SEARCH_OPERATOR.equals(operator.getName())) {
+                // Every search term is a predicate
+                shape.append('[').append(QueryService.searchTerms((String) value).length).append(']');
+            }
+            shape.append(';');
+        }
+    }
+
+    private static int padding(int size) {
+        return size <= 1 ? size : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    private static Object read(Field field, Object target) {
+        try {
+            return field.get(target);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot read " + field, e);
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package dev.flaviojunior.common.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index of short texts, such as titles or names, for prefix search.
+ * <p>
+ * Texts are split into lower-cased words without diacritics. Every indexed entry gets an increasing document number,
+ * so the posting lists are sorted {@code int} arrays which only grow at their end; a re-indexed entry is removed and
+ * added again, and the document numbers are compacted once enough entries were removed. The words are kept sorted,
+ * so the words starting with a prefix are a range of the dictionary.
+ * <p>
+ * A search walks the posting lists of each prefix from their end, merged in a heap, and intersects the prefixes by
+ * seeking every one to the greatest document all of them may still share. It allocates nothing per document, and
+ * stops as soon as it has the requested number of entries, so the most recently indexed entries are found first.
+ * <p>
+ * The index is safe for concurrent use: lookups share a read lock, updates take the write lock.
+ */
+public class InvertedIndex {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final int MAX_QUERY_WORDS = 8;
+
+    private static final int MIN_REMOVED_TO_COMPACT = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final NavigableMap<String, Postings> dictionary = new TreeMap<>();
+
+    private final Map<Long, Integer> documents = new HashMap<>();
+
+    private long[] ids = new long[16];
+
+    private String[] labels = new String[16];
+
+    private String[][] words = new String[16][];
+
+    private int nextDocument;
+
+    private int removed;
+
+    /**
+     * Split a text into the words of the index.
+     *
+     * @param text the text, can be {@code null}.
+     * @return the distinct words, in order of appearance.
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (String token : WORD_SEPARATOR.split(normalized.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Index an entry, replacing its previous text.
+     *
+     * @param id    the id of the entry.
+     * @param label the text to index, which is also returned by {@link #search(String, int)}.
+     */
+    public void put(long id, String label) {
+        Set<String> tokens = tokenize(label);
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            int document = nextDocument++;
+            ensureCapacity(document);
+            ids[document] = id;
+            labels[document] = label;
+            words[document] = tokens.toArray(new String[0]);
+            for (String token : tokens) {
+                dictionary.computeIfAbsent(token, key -> new Postings()).append(document);
+            }
+            documents.put(id, document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove an entry.
+     *
+     * @param id the id of the entry.
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove all the entries.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            dictionary.clear();
+            documents.clear();
+            ids = new long[16];
+            labels = new String[16];
+            words = new String[16][];
+            nextDocument = 0;
+            removed = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of entries.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the entries with a word starting with each word of the query.
+     *
+     * @param query the words to look for.
+     * @param limit the maximum number of entries to return.
+     * @return the matching entries, the most recently indexed first.
+     */
+    public List<Hit> search(String query, int limit) {
+        String[] prefixes = tokenize(query).stream().limit(MAX_QUERY_WORDS).toArray(String[]::new);
+        List<Hit> hits = new ArrayList<>();
+        if (prefixes.length == 0 || limit <= 0) {
+            return hits;
+        }
+        lock.readLock().lock();
+        try {
+            PrefixCursor[] cursors = new PrefixCursor[prefixes.length];
+            for (int i = 0; i < prefixes.length; i++) {
+                Collection<Postings> postings = dictionary.subMap(prefixes[i], true, prefixes[i] + Character.MAX_VALUE, false).values();
+                if (postings.isEmpty()) {
+                    return hits;
+                }
+                cursors[i] = new PrefixCursor(postings);
+            }
+            int target = nextDocument - 1;
+            while (target >= 0 && hits.size() < limit) {
+                // Every prefix is moved to its greatest document up to the target, until they all agree on one
+                int candidate = target;
+                boolean shared = true;
+                for (PrefixCursor cursor : cursors) {
+                    int document = cursor.seek(candidate);
+                    if (document < 0) {
+                        return hits;
+                    }
+                    if (document < candidate) {
+                        candidate = document;
+                        shared = false;
+                    }
+                }
+                if (shared) {
+                    hits.add(new Hit(ids[candidate], labels[candidate]));
+                    candidate--;
+                }
+                target = candidate;
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeDocument(long id) {
+        Integer document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String token : words[document]) {
+            Postings postings = dictionary.get(token);
+            if (postings != null && postings.remove(document) && postings.isEmpty()) {
+                dictionary.remove(token);
+            }
+        }
+        labels[document] = null;
+        words[document] = null;
+        removed++;
+        if (removed >= MIN_REMOVED_TO_COMPACT && removed > documents.size()) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        long[] compactedIds = new long[Math.max(16, documents.size() * 2)];
+        String[] compactedLabels = new String[compactedIds.length];
+        String[][] compactedWords = new String[compactedIds.length][];
+        dictionary.clear();
+        int next = 0;
+        for (int document = 0; document < nextDocument; document++) {
+            if (words[document] == null) {
+                continue;
+            }
+            compactedIds[next] = ids[document];
+            compactedLabels[next] = labels[document];
+            compactedWords[next] = words[document];
+            for (String token : words[document]) {
+                int compactedDocument = next;
+                dictionary.computeIfAbsent(token, key -> new Postings()).append(compactedDocument);
+            }
+            documents.put(ids[document], next);
+            next++;
+        }
+        ids = compactedIds;
+        labels = compactedLabels;
+        words = compactedWords;
+        nextDocument = next;
+        removed = 0;
+    }
+
+    private void ensureCapacity(int document) {
+        if (document >= ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            labels = Arrays.copyOf(labels, capacity);
+            words = Arrays.copyOf(words, capacity);
+        }
+    }
+
+    /**
+     * An entry found by {@link #search(String, int)}.
+     */
+    public static final class Hit {
+
+        private final long id;
+
+        private final String label;
+
+        public Hit(long id, String label) {
+            this.id = id;
+            this.label = label;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * Sorted list of document numbers.
+     */
+    private static final class Postings {
+
+        private int[] documents = new int[4];
+
+        private int size;
+
+        void append(int document) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+            }
+            documents[size++] = document;
+        }
+
+        boolean remove(int document) {
+            int index = Arrays.binarySearch(documents, 0, size, document);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(documents, index + 1, documents, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * @return the index of the greatest document at most the target, among the first {@code length} ones, or -1.
+         */
+        int floorIndex(int target, int length) {
+            int index = Arrays.binarySearch(documents, 0, length, target);
+            return index >= 0 ? index : -index - 2;
+        }
+    }
+
+    /**
+     * Documents of the posting lists of the words starting with a prefix, in decreasing order. Every list has a
+     * position, and the lists are kept in a heap by the document at their position, the greatest on top.
+     */
+    private static final class PrefixCursor {
+
+        private final Postings[] postings;
+
+        private final int[] positions;
+
+        private final int[] heap;
+
+        private int heapSize;
+
+        PrefixCursor(Collection<Postings> prefixPostings) {
+            postings = prefixPostings.toArray(new Postings[0]);
+            positions = new int[postings.length];
+            heap = new int[postings.length];
+            for (int i = 0; i < postings.length; i++) {
+                // Empty lists are removed from the dictionary
+                positions[i] = postings[i].size - 1;
+                heap[heapSize++] = i;
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        /**
+         * Move to the greatest document at most the target.
+         *
+         * @return the document, or -1 if there is none.
+         */
+        int seek(int target) {
+            while (heapSize > 0) {
+                int top = heap[0];
+                if (document(top) <= target) {
+                    return document(top);
+                }
+                positions[top] = postings[top].floorIndex(target, positions[top]);
+                if (positions[top] < 0) {
+                    heap[0] = heap[--heapSize];
+                }
+                siftDown(0);
+            }
+            return -1;
+        }
+
+        private int document(int list) {
+            return postings[list].documents[positions[list]];
+        }
+
+        private void siftDown(int index) {
+            int list = heap[index];
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && document(heap[child + 1]) > document(heap[child])) {
+                    child++;
+                }
+                if (document(heap[child]) <= document(list)) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = list;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package dev.flaviojunior.common.service;
+
+import org.springframework.data.domain.Sort;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Position inside a keyset (seek) paginated result.
+ * <p>
+ * A cursor records the sort property and direction it was issued for, the id of the last returned row, used as
+ * tie-breaker, and its sort key value. It travels as an URL-safe Base64 token, so clients should treat it as opaque.
+ */
+public final class KeysetCursor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String SEPARATOR = ":";
+
+    private final String property;
+    private final Sort.Direction direction;
+    private final Long id;
+    private final String value;
+
+    public KeysetCursor(String property, Sort.Direction direction, Long id, String value) {
+        this.property = Objects.requireNonNull(property);
+        this.direction = Objects.requireNonNull(direction);
+        this.id = Objects.requireNonNull(id);
+        this.value = value;
+    }
+
+    /**
+     * Decode a cursor token.
+     *
+     * @param token the token, as previously returned by {@link #encode()}.
+     * @return the decoded cursor, or {@code null} if the token is empty, which denotes the start of the result.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = decoded.split(SEPARATOR, 4);
+        if (parts.length < 3) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return new KeysetCursor(parts[0], Sort.Direction.fromString(parts[1]), Long.valueOf(parts[2]), parts.length == 4 ? parts[3] : null);
+    }
+
+    /**
+     * Encode this cursor as an URL-safe token.
+     *
+     * @return the token.
+     */
+    public String encode() {
+        StringBuilder decoded = new StringBuilder()
+            .append(property).append(SEPARATOR)
+            .append(direction.name()).append(SEPARATOR)
+            .append(id);
+        if (value != null) {
+            decoded.append(SEPARATOR).append(value);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(decoded.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final KeysetCursor that = (KeysetCursor) o;
+        return Objects.equals(property, that.property) &&
+            direction == that.direction &&
+            Objects.equals(id, that.id) &&
+            Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(property, direction, id, value);
+    }
+
+    @Override
+    public String toString() {
+        return "KeysetCursor{" +
+            "property='" + property + "'" +
+            ", direction=" + direction +
+            ", id=" + id +
+            ", value='" + value + "'" +
+            "}";
+    }
+}
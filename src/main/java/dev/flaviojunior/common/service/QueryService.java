@@ -6,15 +6,20 @@ import dev.flaviojunior.common.service.filter.StringFilter;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaBuilder.In;
 import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import javax.persistence.criteria.SetJoin;
 import javax.persistence.metamodel.SetAttribute;
 import javax.persistence.metamodel.SingularAttribute;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Locale;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.regex.Pattern;
 
 /**
  * Base service for constructing and executing complex queries.
@@ -24,6 +29,22 @@ import java.util.function.Function;
 @Transactional(readOnly = true)
 public abstract class QueryService<ENTITY> {
 
+    /**
+     * Name of the SQL function which tells whether a text contains a word starting with a term, registered by the
+     * dialects of {@code dev.flaviojunior.config.dialect}.
+     */
+    public static final String FULL_TEXT_MATCH_FUNCTION = "fts_match";
+
+    /**
+     * Name of the SQL function which ranks how well a text matches a term, the higher the better, registered by the
+     * dialects of {@code dev.flaviojunior.config.dialect} with {@value #FULL_TEXT_MATCH_FUNCTION}.
+     */
+    public static final String FULL_TEXT_RANK_FUNCTION = "fts_rank";
+
+    private static final Pattern SEARCH_TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final int MAX_SEARCH_TERMS = 8;
+
     /**
      * Helper function to return a specification for filtering on a single field, where equality, and null/non-null
      * conditions are supported.
@@ -94,6 +115,8 @@ public abstract class QueryService<ENTITY> {
             return likeUpperSpecification(metaclassFunction, filter.getContains());
         } else if (filter.getDoesNotContain() != null) {
             return doesNotContainSpecification(metaclassFunction, filter.getDoesNotContain());
+        } else if (filter.getSearch() != null) {
+            return searchSpecification(metaclassFunction, filter.getSearch());
         } else if (filter.getNotEquals() != null) {
             return notEqualsSpecification(metaclassFunction, filter.getNotEquals());
         } else if (filter.getSpecified() != null) {
@@ -378,6 +401,61 @@ public abstract class QueryService<ENTITY> {
         return (root, query, builder) -> builder.not(builder.like(builder.upper(metaclassFunction.apply(root)), wrapLikeQuery(value)));
     }
 
+    /**
+     * Full-text search: every word of the value must start a word of the field. The words are matched with the
+     * {@value #FULL_TEXT_MATCH_FUNCTION} function, which uses the {@code tsvector} indexes on PostgreSQL. Punctuation
+     * is ignored and a value without words does not filter.
+     *
+     * @param metaclassFunction a {@link java.util.function.Function} object.
+     * @param value             a {@link java.lang.String} object.
+     * @return a {@link org.springframework.data.jpa.domain.Specification} object.
+     */
+    protected Specification<ENTITY> searchSpecification(Function<Root<ENTITY>, Expression<String>> metaclassFunction,
+                                                        final String value) {
+        String[] terms = searchTerms(value);
+        return (root, query, builder) -> {
+            if (terms.length == 0) {
+                return null;
+            }
+            Expression<String> field = metaclassFunction.apply(root);
+            return builder.and(Arrays.stream(terms)
+                    .map(term -> builder.isTrue(builder.function(FULL_TEXT_MATCH_FUNCTION, Boolean.class, field, builder.literal(term))))
+                    .toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Relevance of a field to a full-text search: the sum of the {@value #FULL_TEXT_RANK_FUNCTION} of the terms which
+     * {@link #searchSpecification(Function, String)} matches.
+     *
+     * @param field   the searched field.
+     * @param value   the value of the search.
+     * @param builder the criteria builder.
+     * @return the relevance, or {@code null} if the value has no words.
+     */
+    protected Expression<Double> searchRank(Expression<String> field, String value, CriteriaBuilder builder) {
+        Expression<Double> rank = null;
+        for (String term : searchTerms(value)) {
+            Expression<Double> termRank = builder.function(FULL_TEXT_RANK_FUNCTION, Double.class, field, builder.literal(term));
+            rank = rank == null ? termRank : builder.sum(rank, termRank);
+        }
+        return rank;
+    }
+
+    /**
+     * Split the value of a full-text search into its terms.
+     *
+     * @param value the value of the search.
+     * @return the distinct lower-cased terms, at most {@value #MAX_SEARCH_TERMS}.
+     */
+    static String[] searchTerms(String value) {
+        return Arrays.stream(SEARCH_TERM_SEPARATOR.split(value.toLowerCase(Locale.ROOT)))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .limit(MAX_SEARCH_TERMS)
+                .toArray(String[]::new);
+    }
+
     /**
      * <p>byFieldSpecified.</p>
      *
@@ -33,6 +33,7 @@ import java.util.Objects;
  * fieldName.notIn='something','other'
  * fieldName.contains='thing'
  * fieldName.doesNotContain='thing'
+ * fieldName.search='some words'
  * </code>
  */
 public class StringFilter extends Filter<String> {
@@ -41,6 +42,7 @@ public class StringFilter extends Filter<String> {
 
     private String contains;
     private String doesNotContain;
+    private String search;
 
     /**
      * <p>Constructor for StringFilter.</p>
@@ -57,6 +59,7 @@ public class StringFilter extends Filter<String> {
         super(filter);
         this.contains = filter.contains;
         this.doesNotContain = filter.doesNotContain;
+        this.search = filter.search;
     }
 
     /** {@inheritDoc} */
@@ -105,6 +108,27 @@ public class StringFilter extends Filter<String> {
         return this;
     }
 
+    /**
+     * <p>Getter for the field <code>search</code>.</p>
+     *
+     * @return a {@link String} object.
+     */
+    public String getSearch() {
+        return search;
+    }
+
+    /**
+     * <p>Setter for the field <code>search</code>: the words to look for, each matching the start of a word of the
+     * field.</p>
+     *
+     * @param search a {@link String} object.
+     * @return a {@link StringFilter} object.
+     */
+    public StringFilter setSearch(String search) {
+        this.search = search;
+        return this;
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean equals(final Object o) {
@@ -119,13 +143,14 @@ public class StringFilter extends Filter<String> {
         }
         final StringFilter that = (StringFilter) o;
         return Objects.equals(contains, that.contains) &&
-            Objects.equals(doesNotContain, that.doesNotContain);
+            Objects.equals(doesNotContain, that.doesNotContain) &&
+            Objects.equals(search, that.search);
     }
 
     /** {@inheritDoc} */
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), contains, doesNotContain);
+        return Objects.hash(super.hashCode(), contains, doesNotContain, search);
     }
 
     /** {@inheritDoc} */
@@ -138,7 +163,8 @@ public class StringFilter extends Filter<String> {
             + (getIn() != null ? "in=" + getIn() + ", " : "")
             + (getNotIn() != null ? "notIn=" + getNotIn() + ", " : "")
             + (getContains() != null ? "contains=" + getContains() + ", " : "")
-            + (getDoesNotContain() != null ? "doesNotContain=" + getDoesNotContain() : "")
+            + (getDoesNotContain() != null ? "doesNotContain=" + getDoesNotContain() + ", " : "")
+            + (getSearch() != null ? "search=" + getSearch() : "")
             + "]";
     }
 
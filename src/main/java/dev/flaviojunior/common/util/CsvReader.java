@@ -0,0 +1,98 @@
+package dev.flaviojunior.common.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader of comma separated values (RFC 4180).
+ * <p>
+ * Records are parsed one at a time from the underlying reader, so the whole file is never held in memory. Quoted
+ * fields can contain commas, line breaks and escaped ({@code ""}) quotes.
+ */
+public class CsvReader implements Closeable {
+
+    private static final char SEPARATOR = ',';
+
+    private static final char QUOTE = '"';
+
+    private static final int END = -1;
+
+    private final Reader reader;
+
+    private int next = Integer.MIN_VALUE;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Read the next record.
+     *
+     * @return the fields of the record, or {@code null} at the end of the input.
+     * @throws IOException if the input can not be read, or a quoted field is not closed.
+     */
+    public List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == END) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == END) {
+                    throw new IOException("Unterminated quoted field");
+                }
+                if (c == QUOTE) {
+                    if (peek() == QUOTE) {
+                        read();
+                        field.append(QUOTE);
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == QUOTE && field.length() == 0) {
+                quoted = true;
+            } else if (c == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == END) {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (next != Integer.MIN_VALUE) {
+            int c = next;
+            next = Integer.MIN_VALUE;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private int peek() throws IOException {
+        if (next == Integer.MIN_VALUE) {
+            next = reader.read();
+        }
+        return next;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
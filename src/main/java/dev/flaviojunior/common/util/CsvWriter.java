@@ -0,0 +1,77 @@
+package dev.flaviojunior.common.util;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writer of comma separated values (RFC 4180), the counterpart of {@link CsvReader}.
+ * <p>
+ * Fields containing a comma, a quote or a line break are quoted, and their quotes are doubled.
+ */
+public class CsvWriter implements Flushable, Closeable {
+
+    private static final char SEPARATOR = ',';
+
+    private static final char QUOTE = '"';
+
+    private static final String LINE_SEPARATOR = "\r\n";
+
+    private final Writer writer;
+
+    public CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Write a record.
+     *
+     * @param fields the fields of the record, {@code null} fields are written empty.
+     * @throws IOException if the record can not be written.
+     */
+    public void writeRecord(List<String> fields) throws IOException {
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                writer.write(SEPARATOR);
+            }
+            writeField(fields.get(i));
+        }
+        writer.write(LINE_SEPARATOR);
+    }
+
+    private void writeField(String field) throws IOException {
+        if (field == null) {
+            return;
+        }
+        boolean quoted = false;
+        for (int i = 0; i < field.length() && !quoted; i++) {
+            char c = field.charAt(i);
+            quoted = c == SEPARATOR || c == QUOTE || c == '\r' || c == '\n';
+        }
+        if (!quoted) {
+            writer.write(field);
+            return;
+        }
+        writer.write(QUOTE);
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == QUOTE) {
+                writer.write(QUOTE);
+            }
+            writer.write(c);
+        }
+        writer.write(QUOTE);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
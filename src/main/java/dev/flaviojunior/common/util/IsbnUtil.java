@@ -0,0 +1,76 @@
+package dev.flaviojunior.common.util;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class for ISBN canonicalization.
+ * <p>
+ * Hyphens and spaces are removed, and valid ISBN-10 are converted to their ISBN-13 form, so the different spellings of
+ * the same book share one key.
+ */
+public final class IsbnUtil {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s-]");
+
+    private static final Pattern ISBN_10 = Pattern.compile("\\d{9}[\\dX]");
+
+    private static final String ISBN_13_PREFIX = "978";
+
+    private IsbnUtil() {
+    }
+
+    /**
+     * Returns the canonical form of an ISBN. Values which are not a valid ISBN-10 are only stripped of their
+     * separators and upper-cased.
+     *
+     * @param isbn the ISBN, as entered.
+     * @return the canonical ISBN, or {@code null} if {@code isbn} is {@code null}.
+     */
+    public static String normalize(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        String compact = compact(isbn);
+        if (isValidIsbn10(compact)) {
+            String isbn13 = ISBN_13_PREFIX + compact.substring(0, 9);
+            return isbn13 + isbn13CheckDigit(isbn13);
+        }
+        return compact;
+    }
+
+    /**
+     * Returns an ISBN stripped of its separators and upper-cased, without converting it.
+     *
+     * @param isbn the ISBN, as entered.
+     * @return the compact ISBN, or {@code null} if {@code isbn} is {@code null}.
+     */
+    public static String compact(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        return SEPARATORS.matcher(isbn).replaceAll("").toUpperCase(Locale.ROOT);
+    }
+
+    private static boolean isValidIsbn10(String isbn) {
+        if (!ISBN_10.matcher(isbn).matches()) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = 0; i < 10; i++) {
+            char c = isbn.charAt(i);
+            int digit = c == 'X' ? 10 : c - '0';
+            sum += digit * (10 - i);
+        }
+        return sum % 11 == 0;
+    }
+
+    private static int isbn13CheckDigit(String first12Digits) {
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            int digit = first12Digits.charAt(i) - '0';
+            sum += i % 2 == 0 ? digit : digit * 3;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
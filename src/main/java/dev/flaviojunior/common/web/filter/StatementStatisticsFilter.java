@@ -0,0 +1,80 @@
+package dev.flaviojunior.common.web.filter;
+
+import dev.flaviojunior.common.jdbc.StatementStatistics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Filter gathering the {@link StatementStatistics} of each HTTP request.
+ * <p>
+ * The statistics are returned in the {@value #STATEMENT_COUNT_HEADER} and {@value #ROW_COUNT_HEADER} headers, which
+ * are added before the body is written by the {@link StatementStatisticsHeaderAdvice}, or after the request when it has
+ * no body. The {@value #ROW_COUNT_HEADER} header is only returned when the rows read are counted, with
+ * {@code application.jdbc.count-rows}, as it would otherwise hold the rows written only. They are also published as the {@code library.http.statements} and {@code library.http.rows} summaries,
+ * tagged by method and URI pattern, so an endpoint which starts loading its relationships one by one stands out.
+ */
+public class StatementStatisticsFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENT_COUNT_HEADER = "X-Statement-Count";
+
+    public static final String ROW_COUNT_HEADER = "X-Row-Count";
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean countRows;
+
+    public StatementStatisticsFilter(MeterRegistry meterRegistry, boolean countRows) {
+        this.meterRegistry = meterRegistry;
+        this.countRows = countRows;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        StatementStatistics statistics = StatementStatistics.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            StatementStatistics.end();
+            if (!response.isCommitted()) {
+                addHeaders(response, statistics);
+            }
+            record(request, statistics);
+        }
+    }
+
+    private void addHeaders(HttpServletResponse response, StatementStatistics statistics) {
+        response.setHeader(STATEMENT_COUNT_HEADER, Long.toString(statistics.getStatements()));
+        if (countRows) {
+            response.setHeader(ROW_COUNT_HEADER, Long.toString(statistics.getRows()));
+        }
+    }
+
+    private void record(HttpServletRequest request, StatementStatistics statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", pattern != null ? pattern.toString() : UNKNOWN_URI);
+        DistributionSummary
+            .builder("library.http.statements")
+            .description("Statements executed by a request")
+            .tags(tags)
+            .register(meterRegistry)
+            .record(statistics.getStatements());
+        DistributionSummary
+            .builder("library.http.rows")
+            .description("Rows read or written by a request")
+            .tags(tags)
+            .register(meterRegistry)
+            .record(statistics.getRows());
+    }
+}
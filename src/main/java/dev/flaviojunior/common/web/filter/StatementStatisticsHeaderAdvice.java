@@ -0,0 +1,51 @@
+package dev.flaviojunior.common.web.filter;
+
+import dev.flaviojunior.common.jdbc.StatementStatistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the {@link StatementStatistics} of the request to the headers of its response, right before the body is
+ * written: the response is committed while it is written, after which the {@link StatementStatisticsFilter} can no
+ * longer add them. The body is written after the service transaction, so the statistics are complete. As in the
+ * filter, the rows are only added when they are counted with {@code application.jdbc.count-rows}.
+ */
+@ControllerAdvice
+public class StatementStatisticsHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    private final boolean countRows;
+
+    public StatementStatisticsHeaderAdvice(@Value("${application.jdbc.count-rows:false}") boolean countRows) {
+        this.countRows = countRows;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(
+        Object body,
+        MethodParameter returnType,
+        MediaType selectedContentType,
+        Class<? extends HttpMessageConverter<?>> selectedConverterType,
+        ServerHttpRequest request,
+        ServerHttpResponse response
+    ) {
+        StatementStatistics statistics = StatementStatistics.current();
+        if (statistics != null) {
+            response.getHeaders().set(StatementStatisticsFilter.STATEMENT_COUNT_HEADER, Long.toString(statistics.getStatements()));
+            if (countRows) {
+                response.getHeaders().set(StatementStatisticsFilter.ROW_COUNT_HEADER, Long.toString(statistics.getRows()));
+            }
+        }
+        return body;
+    }
+}
@@ -67,6 +67,15 @@ public class ExceptionTranslator implements ProblemHandling {
         );
     }
 
+    @ExceptionHandler
+    public ResponseEntity<Problem> handlePreconditionRequiredException(PreconditionRequiredException ex, NativeWebRequest request) {
+        return create(
+                ex,
+                request,
+                HeaderUtil.createFailureAlert(applicationName, ex.getEntityName(), ex.getMessage())
+        );
+    }
+
     @ExceptionHandler
     public ResponseEntity<Problem> handleConcurrencyFailure(ConcurrencyFailureException ex, NativeWebRequest request) {
         Problem problem = Problem.builder().withStatus(Status.CONFLICT).with(MESSAGE_KEY, ErrorConstants.ERR_CONCURRENCY_FAILURE).build();
@@ -0,0 +1,32 @@
+package dev.flaviojunior.common.web.rest.errors;
+
+import org.zalando.problem.AbstractThrowableProblem;
+import org.zalando.problem.Status;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Thrown when a write must be conditional, and the request has none of the preconditions it could be made on.
+ */
+public class PreconditionRequiredException extends AbstractThrowableProblem {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String entityName;
+
+    public PreconditionRequiredException(String defaultMessage, String entityName) {
+        super(ErrorConstants.DEFAULT_TYPE, defaultMessage, Status.PRECONDITION_REQUIRED, null, null, null, getAlertParameters(entityName));
+        this.entityName = entityName;
+    }
+
+    private static Map<String, Object> getAlertParameters(String entityName) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("params", entityName);
+        return parameters;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+}
@@ -0,0 +1,35 @@
+package dev.flaviojunior.common.web.util;
+
+import java.util.Locale;
+
+/**
+ * How the total number of elements is computed for a paginated request.
+ */
+public enum CountMode {
+    /**
+     * The total is counted exactly, with a second query.
+     */
+    EXACT,
+    /**
+     * The total is not counted, the response only tells if a next page exists.
+     */
+    NONE,
+    /**
+     * The total is estimated from the database statistics, which can only be done for an unfiltered list.
+     */
+    ESTIMATED;
+
+    /**
+     * Parse the value of a {@code count} request parameter, case-insensitively.
+     *
+     * @param value the value, can be {@code null}.
+     * @return the matching mode, {@link #EXACT} if the value is {@code null}.
+     * @throws IllegalArgumentException if the value is unknown.
+     */
+    public static CountMode fromValue(String value) {
+        if (value == null) {
+            return EXACT;
+        }
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -19,6 +19,7 @@
 package dev.flaviojunior.common.web.util;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -34,6 +35,7 @@ import java.text.MessageFormat;
 public final class PaginationUtil {
 
     private static final String HEADER_X_TOTAL_COUNT = "X-Total-Count";
+    private static final String HEADER_X_ESTIMATED_TOTAL_COUNT = "X-Estimated-Total-Count";
     private static final String HEADER_LINK_FORMAT = "<{0}>; rel=\"{1}\"";
 
     private PaginationUtil() {
@@ -68,10 +70,106 @@ public final class PaginationUtil {
         return headers;
     }
 
+    /**
+     * Generate pagination headers for a Spring Data {@link Slice} object, whose total is unknown. No total count
+     * header and no {@code last} link are generated.
+     *
+     * @param uriBuilder The URI builder.
+     * @param slice The slice.
+     * @param <T> The type of object.
+     * @return http header.
+     */
+    public static <T> HttpHeaders generateSlicePaginationHttpHeaders(UriComponentsBuilder uriBuilder, Slice<T> slice) {
+        HttpHeaders headers = new HttpHeaders();
+        int pageNumber = slice.getNumber();
+        int pageSize = slice.getSize();
+        StringBuilder link = new StringBuilder();
+        if (slice.hasNext()) {
+            link.append(prepareLink(uriBuilder, pageNumber + 1, pageSize, "next"))
+                .append(",");
+        }
+        if (pageNumber > 0) {
+            link.append(prepareLink(uriBuilder, pageNumber - 1, pageSize, "prev"))
+                .append(",");
+        }
+        link.append(prepareLink(uriBuilder, 0, pageSize, "first"));
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+
+    /**
+     * Generate pagination headers for a Spring Data {@link Slice} object, whose total is estimated. The estimate is
+     * sent in the {@code X-Estimated-Total-Count} header and only used for the {@code last} link, the {@code next}
+     * link relies on the slice itself.
+     *
+     * @param uriBuilder The URI builder.
+     * @param slice The slice.
+     * @param estimatedTotal The estimated total number of elements.
+     * @param <T> The type of object.
+     * @return http header.
+     */
+    public static <T> HttpHeaders generateEstimatedPaginationHttpHeaders(UriComponentsBuilder uriBuilder, Slice<T> slice, long estimatedTotal) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HEADER_X_ESTIMATED_TOTAL_COUNT, Long.toString(estimatedTotal));
+        int pageNumber = slice.getNumber();
+        int pageSize = slice.getSize();
+        int lastPage = Math.max(pageNumber, (int) ((estimatedTotal + pageSize - 1) / pageSize) - 1);
+        StringBuilder link = new StringBuilder();
+        if (slice.hasNext()) {
+            link.append(prepareLink(uriBuilder, pageNumber + 1, pageSize, "next"))
+                .append(",");
+        }
+        if (pageNumber > 0) {
+            link.append(prepareLink(uriBuilder, pageNumber - 1, pageSize, "prev"))
+                .append(",");
+        }
+        link.append(prepareLink(uriBuilder, lastPage, pageSize, "last"))
+            .append(",")
+            .append(prepareLink(uriBuilder, 0, pageSize, "first"));
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+
+    /**
+     * Generate keyset pagination headers for a Spring Data {@link Slice} object. As a cursor can only move forward,
+     * only the {@code next} and {@code first} links are generated.
+     *
+     * @param uriBuilder The URI builder.
+     * @param slice The slice.
+     * @param nextCursor The cursor of the next slice, or {@code null} if there is none.
+     * @param <T> The type of object.
+     * @return http header.
+     */
+    public static <T> HttpHeaders generateCursorPaginationHttpHeaders(UriComponentsBuilder uriBuilder, Slice<T> slice, String nextCursor) {
+        HttpHeaders headers = new HttpHeaders();
+        int pageSize = slice.getSize();
+        StringBuilder link = new StringBuilder();
+        if (slice.hasNext() && nextCursor != null) {
+            link.append(prepareCursorLink(uriBuilder, nextCursor, pageSize, "next"))
+                .append(",");
+        }
+        link.append(prepareCursorLink(uriBuilder, "", pageSize, "first"));
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+
     private static String prepareLink(UriComponentsBuilder uriBuilder, int pageNumber, int pageSize, String relType) {
         return MessageFormat.format(HEADER_LINK_FORMAT, preparePageUri(uriBuilder, pageNumber, pageSize), relType);
     }
 
+    private static String prepareCursorLink(UriComponentsBuilder uriBuilder, String cursor, int pageSize, String relType) {
+        return MessageFormat.format(HEADER_LINK_FORMAT, prepareCursorUri(uriBuilder, cursor, pageSize), relType);
+    }
+
+    private static String prepareCursorUri(UriComponentsBuilder uriBuilder, String cursor, int pageSize) {
+        return uriBuilder.replaceQueryParam("page")
+            .replaceQueryParam("cursor", cursor)
+            .replaceQueryParam("size", Integer.toString(pageSize))
+            .toUriString()
+            .replace(",", "%2C")
+            .replace(";", "%3B");
+    }
+
     private static String preparePageUri(UriComponentsBuilder uriBuilder, int pageNumber, int pageSize) {
         return uriBuilder.replaceQueryParam("page", Integer.toString(pageNumber))
             .replaceQueryParam("size", Integer.toString(pageSize))
@@ -3,9 +3,16 @@ package dev.flaviojunior.common.web.util;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Utility class for ResponseEntity creation.
@@ -45,4 +52,146 @@ public interface ResponseUtil {
 		return maybeResponse.map(response -> ResponseEntity.ok().headers(header).body(response))
 				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
 	}
+
+	/**
+	 * Return a {@link HttpStatus#NOT_MODIFIED} response when the client
+	 * already has the current representation, without loading it, or
+	 * else load it and wrap it like {@link #wrapOrNotFound(Optional)},
+	 * with its validators.
+	 *
+	 * @param <X>           type of the response
+	 * @param request       the current request
+	 * @param eTag          entity tag of the current representation
+	 * @param lastModified  last modification of the representation, can be
+	 *                      {@code null}
+	 * @param maybeResponse loads the response
+	 * @return response {@link HttpStatus#NOT_MODIFIED}, or containing the
+	 *         loaded response if present
+	 * @throws ResponseStatusException {@code 404 (Not found)} if the loaded
+	 *                                 response is empty
+	 */
+	static <X> ResponseEntity<X> wrapOrNotModified(WebRequest request, String eTag, Instant lastModified,
+			Supplier<Optional<X>> maybeResponse) {
+		if (isNotModified(request, eTag, lastModified)) {
+			return notModified(eTag, lastModified);
+		}
+		return wrapOrNotFound(maybeResponse.get(), validatorHeaders(eTag, lastModified));
+	}
+
+	/**
+	 * Tell whether the client already has the current representation: the
+	 * {@code If-None-Match} header of the request matches the entity tag
+	 * or, without that header, the {@code If-Modified-Since} header is not
+	 * before the last modification.
+	 *
+	 * @param request      the current request
+	 * @param eTag         entity tag of the current representation
+	 * @param lastModified last modification of the representation, can be
+	 *                     {@code null}
+	 * @return {@code true} if a {@link HttpStatus#NOT_MODIFIED} response can
+	 *         be returned
+	 */
+	static boolean isNotModified(WebRequest request, String eTag, Instant lastModified) {
+		String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+		if (ifNoneMatch != null) {
+			return matchesETag(ifNoneMatch, eTag);
+		}
+		String ifModifiedSince = request.getHeader(HttpHeaders.IF_MODIFIED_SINCE);
+		if (ifModifiedSince == null || lastModified == null) {
+			return false;
+		}
+		try {
+			Instant since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+			// HTTP dates have no fraction of second
+			return !lastModified.truncatedTo(ChronoUnit.SECONDS).isAfter(since);
+		} catch (DateTimeParseException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Tell whether an {@code If-None-Match} header matches an entity tag.
+	 * The tags are compared with the weak comparison, which RFC 7232
+	 * requires for {@code If-None-Match}.
+	 *
+	 * @param header the value of the header, a list of entity tags or
+	 *               {@code *}
+	 * @param eTag   entity tag of the current representation
+	 * @return {@code true} if one of the tags of the header matches
+	 */
+	static boolean matchesETag(String header, String eTag) {
+		String opaqueTag = opaqueTag(eTag);
+		for (String candidate : header.split(",")) {
+			String tag = candidate.trim();
+			if ("*".equals(tag) || opaqueTag(tag).equals(opaqueTag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Tell whether an {@code If-Match} header matches an entity tag. The
+	 * tags are compared with the strong comparison, which RFC 7232
+	 * requires for {@code If-Match}: a weak tag never matches.
+	 *
+	 * @param header the value of the header, a list of entity tags or
+	 *               {@code *}
+	 * @param eTag   entity tag of the current representation
+	 * @return {@code true} if one of the tags of the header matches
+	 */
+	static boolean matchesETagStrongly(String header, String eTag) {
+		if (isWeak(eTag)) {
+			return false;
+		}
+		for (String candidate : header.split(",")) {
+			String tag = candidate.trim();
+			if ("*".equals(tag) || tag.equals(eTag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Create a {@link HttpStatus#NOT_MODIFIED} response, without body.
+	 *
+	 * @param <X>          type of the response
+	 * @param eTag         entity tag of the current representation
+	 * @param lastModified last modification of the representation, can be
+	 *                     {@code null}
+	 * @return response {@link HttpStatus#NOT_MODIFIED}
+	 */
+	static <X> ResponseEntity<X> notModified(String eTag, Instant lastModified) {
+		return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(validatorHeaders(eTag, lastModified)).build();
+	}
+
+	/**
+	 * Add an entity tag to a response.
+	 *
+	 * @param <X>      type of the response
+	 * @param response the response
+	 * @param eTag     entity tag of the representation
+	 * @return the response with the {@code ETag} header
+	 */
+	static <X> ResponseEntity<X> withETag(ResponseEntity<X> response, String eTag) {
+		return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders()).eTag(eTag).body(response.getBody());
+	}
+
+	private static HttpHeaders validatorHeaders(String eTag, Instant lastModified) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setETag(eTag);
+		if (lastModified != null) {
+			headers.setLastModified(lastModified);
+		}
+		return headers;
+	}
+
+	private static String opaqueTag(String eTag) {
+		return isWeak(eTag) ? eTag.substring(2) : eTag;
+	}
+
+	private static boolean isWeak(String eTag) {
+		return eTag.startsWith("W/");
+	}
 }
@@ -0,0 +1,88 @@
+package dev.flaviojunior.config;
+
+import dev.flaviojunior.domain.Author;
+import dev.flaviojunior.domain.Book;
+import dev.flaviojunior.domain.Category;
+import dev.flaviojunior.repository.BookRepository;
+import dev.flaviojunior.service.BookQueryService;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+
+/**
+ * Local JCache (Ehcache) caches, used as Hibernate second-level cache regions and for the results of the book queries.
+ * <p>
+ * Statistics are enabled on every cache, so hits, misses and evictions are published as
+ * {@code javax.cache:type=CacheStatistics} MBeans.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+
+    private final javax.cache.configuration.Configuration<Object, Object> queryResultsConfiguration;
+
+    public CacheConfiguration(
+        @Value("${application.cache.ehcache.time-to-live-seconds:3600}") long timeToLiveSeconds,
+        @Value("${application.cache.ehcache.max-entries:10000}") long maxEntries,
+        @Value("${application.cache.query-results.time-to-live-seconds:60}") long queryResultsTimeToLiveSeconds,
+        @Value("${application.cache.query-results.max-entries:1000}") long queryResultsMaxEntries
+    ) {
+        jcacheConfiguration = jcacheConfiguration(timeToLiveSeconds, maxEntries);
+        queryResultsConfiguration = jcacheConfiguration(queryResultsTimeToLiveSeconds, queryResultsMaxEntries);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(CacheManager cacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+    }
+
+    @Bean
+    public JCacheManagerCustomizer cacheManagerCustomizer() {
+        return cm -> {
+            createCache(cm, Book.class.getName());
+            createCache(cm, Book.class.getName() + ".authors");
+            createCache(cm, Book.class.getName() + ".categories");
+            createCache(cm, Author.class.getName());
+            createCache(cm, Category.class.getName());
+            createCache(cm, BookRepository.BOOK_ID_BY_ISBN_KEY_CACHE);
+            createCache(cm, BookQueryService.BOOK_QUERY_RESULTS_CACHE, queryResultsConfiguration);
+            // jhipster-needle-ehcache-add-entry
+        };
+    }
+
+    private void createCache(CacheManager cm, String cacheName) {
+        createCache(cm, cacheName, jcacheConfiguration);
+    }
+
+    private void createCache(CacheManager cm, String cacheName, javax.cache.configuration.Configuration<Object, Object> configuration) {
+        javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        } else {
+            cm.createCache(cacheName, configuration);
+        }
+        cm.enableStatistics(cacheName, true);
+    }
+
+    private static javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(long timeToLiveSeconds, long maxEntries) {
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(timeToLiveSeconds)))
+                .build()
+        );
+    }
+}
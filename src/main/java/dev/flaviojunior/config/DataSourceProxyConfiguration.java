@@ -0,0 +1,58 @@
+package dev.flaviojunior.config;
+
+import dev.flaviojunior.common.jdbc.StatementStatisticsListener;
+import dev.flaviojunior.common.web.filter.StatementStatisticsFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Proxy around the Hikari {@link DataSource}, which counts the statements and rows of each HTTP request and logs the
+ * slow statements.
+ * <p>
+ * The rows read are only counted with {@code application.jdbc.count-rows}, as the result sets must then be proxied and
+ * every call on them goes through the listener: the tests and the diagnostics turn it on, otherwise the rows are only
+ * those written and are left out of the response headers. The parameters of the slow statements, which can hold personal data, are only logged with
+ * {@code application.jdbc.log-slow-query-parameters}.
+ * <p>
+ * The proxy unwraps to the Hikari pool, so its health and metrics are still published.
+ */
+@Configuration
+public class DataSourceProxyConfiguration {
+
+    @Bean
+    public static BeanPostProcessor dataSourceProxyBeanPostProcessor(
+        @Value("${application.jdbc.slow-query-threshold-ms:1000}") long slowQueryThresholdMillis,
+        @Value("${application.jdbc.log-slow-query-parameters:false}") boolean logSlowQueryParameters,
+        @Value("${application.jdbc.count-rows:false}") boolean countRows
+    ) {
+        StatementStatisticsListener listener = new StatementStatisticsListener(slowQueryThresholdMillis, logSlowQueryParameters);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(beanName, (DataSource) bean).listener(listener);
+                if (countRows) {
+                    builder.methodListener(listener).proxyResultSet();
+                }
+                return builder.build();
+            }
+        };
+    }
+
+    @Bean
+    public StatementStatisticsFilter statementStatisticsFilter(
+        MeterRegistry meterRegistry,
+        @Value("${application.jdbc.count-rows:false}") boolean countRows
+    ) {
+        return new StatementStatisticsFilter(meterRegistry, countRows);
+    }
+}
@@ -0,0 +1,66 @@
+package dev.flaviojunior.config;
+
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Execution mode of the request handling, picked by {@code application.execution-mode}:
+ * <ul>
+ *     <li>{@code platform} (default): the requests are handled by the pool of platform threads of Tomcat, bounded by
+ *     {@code server.tomcat.threads.max}.</li>
+ *     <li>{@code virtual}: every request is handled by its own virtual thread, so a request waiting for the database
+ *     no longer holds a platform thread. This needs a Java 21 runtime, which only the virtual images ship
+ *     ({@code Dockerfile.virtual} and {@code bootBuildVirtualImage}): Spring Boot 2.5 and Hibernate 5.4 are supported
+ *     up to Java 17, which the default images stay on.</li>
+ * </ul>
+ * Spring MVC runs the controllers on the thread of the connector, so the mode applies to every endpoint: the read API
+ * of {@code LibraryResource} is the one which benefits, its requests mostly waiting on JDBC. With virtual threads the
+ * concurrency is bounded by the Hikari pool instead, and the JDBC driver still pins the carrier thread while it
+ * holds a monitor.
+ */
+@Configuration
+public class ExecutionModeConfiguration {
+
+    private static final String VIRTUAL_THREAD_NAME_PREFIX = "http-virtual-";
+
+    /*
+     * The executor is not a bean, which would replace the task executor of Spring MVC asynchronous requests. Virtual
+     * threads are daemon threads, so it does not need to be shut down.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.execution-mode", havingValue = "virtual")
+    public TomcatProtocolHandlerCustomizer<AbstractProtocol<?>> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    /**
+     * Create an executor starting a virtual thread per task. The application is compiled for Java 17, so the virtual
+     * thread API of Java 21 is looked up at runtime.
+     *
+     * @return the executor.
+     * @throws IllegalStateException if the runtime has no virtual threads.
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, VIRTUAL_THREAD_NAME_PREFIX, 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, threadFactory);
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException(
+                "The virtual execution mode needs a Java 21 runtime, this one is " + System.getProperty("java.version"),
+                e
+            );
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package dev.flaviojunior.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Creates the PostgreSQL indexes which Hibernate schema generation can not express.
+ * <p>
+ * The {@code tsvector} GIN indexes serve the {@code search} filter, and the {@code pg_trgm} GIN indexes serve the
+ * {@code contains} filter, which is an {@code upper(column) like '%value%'} predicate. The statements are idempotent,
+ * and a failure, such as missing privileges to create the extension, is logged without stopping the application.
+ */
+@Component
+public class FullTextIndexInitializer {
+
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private static final List<String> STATEMENTS = Arrays.asList(
+        "create index if not exists idx_book_title_fts on book using gin (to_tsvector('simple', title))",
+        "create index if not exists idx_book_publisher_fts on book using gin (to_tsvector('simple', publisher))",
+        "create extension if not exists pg_trgm",
+        "create index if not exists idx_book_title_trgm on book using gin (upper(title) gin_trgm_ops)",
+        "create index if not exists idx_book_publisher_trgm on book using gin (upper(publisher) gin_trgm_ops)"
+    );
+
+    private final Logger log = LoggerFactory.getLogger(FullTextIndexInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public FullTextIndexInitializer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        String databaseProductName = jdbcTemplate.execute(
+            (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()
+        );
+        if (!POSTGRESQL.equals(databaseProductName)) {
+            log.debug("Full-text indexes are not created on {}", databaseProductName);
+            return;
+        }
+        for (String statement : STATEMENTS) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute(statement));
+            } catch (DataAccessException e) {
+                log.warn("Could not run '{}' : {}", statement, e.getMessage());
+            }
+        }
+    }
+}
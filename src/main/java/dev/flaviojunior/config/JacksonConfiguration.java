@@ -27,11 +27,12 @@ public class JacksonConfiguration {
     }
 
     /*
-     * Support for Hibernate types in Jackson.
+     * Support for Hibernate types in Jackson. Lazy relationships are never loaded while serializing, which happens
+     * after the transaction.
      */
     @Bean
     public Hibernate5Module hibernate5Module() {
-        return new Hibernate5Module();
+        return new Hibernate5Module().configure(Hibernate5Module.Feature.FORCE_LAZY_LOADING, false);
     }
 
     /*
@@ -0,0 +1,36 @@
+package dev.flaviojunior.config;
+
+import dev.flaviojunior.aop.metrics.QueryMetricsAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics of the application, on top of those of Spring Boot: the HTTP requests, the Spring Data repository
+ * invocations, the Hikari pool and the Hibernate statistics are published by its auto-configuration. The reuse of the
+ * query plans compiled by Hibernate is published with its statistics, as {@code hibernate.cache.query.plan}.
+ * <p>
+ * The metrics are scraped by Prometheus from {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * Number of criteria shapes timed, beyond which the queries of new shapes are no longer timed.
+     */
+    private static final int MAX_QUERY_SHAPES = 256;
+
+    @Bean
+    public QueryMetricsAspect queryMetricsAspect(MeterRegistry meterRegistry) {
+        return new QueryMetricsAspect(meterRegistry);
+    }
+
+    /**
+     * Bounds the series of the query timers, as the criteria shapes come from the requests.
+     */
+    @Bean
+    public MeterFilter queryShapeMeterFilter() {
+        return MeterFilter.maximumAllowableTags(QueryMetricsAspect.METRIC_NAME, "shape", MAX_QUERY_SHAPES, MeterFilter.deny());
+    }
+}
@@ -0,0 +1,27 @@
+package dev.flaviojunior.config.dialect;
+
+import dev.flaviojunior.common.service.QueryService;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * H2 dialect with a fallback of the full-text search functions used by {@link QueryService}, for the tests.
+ * <p>
+ * A term matches when it is contained in the column, ignoring case, which finds more than the word prefix match of
+ * {@link PostgreSQLFullTextDialect}. A match ranks higher the closer the term is to the start of the column.
+ */
+public class H2FullTextDialect extends H2Dialect {
+
+    public H2FullTextDialect() {
+        super();
+        registerFunction(
+            QueryService.FULL_TEXT_MATCH_FUNCTION,
+            new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN, "(upper(?1) like ('%' || upper(?2) || '%'))")
+        );
+        registerFunction(
+            QueryService.FULL_TEXT_RANK_FUNCTION,
+            new SQLFunctionTemplate(StandardBasicTypes.DOUBLE, "coalesce(1e0 / nullif(locate(upper(?2), upper(?1)), 0), 0e0)")
+        );
+    }
+}
@@ -0,0 +1,28 @@
+package dev.flaviojunior.config.dialect;
+
+import dev.flaviojunior.common.service.QueryService;
+import org.hibernate.dialect.PostgreSQL10Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * PostgreSQL dialect with the full-text search functions used by {@link QueryService}.
+ * <p>
+ * A term matches the start of a word of the {@code simple} text search configuration, so the predicate is served by
+ * the {@code to_tsvector('simple', column)} GIN indexes. The rank of a match is its {@code ts_rank}, which is computed
+ * from the text of each matching row rather than from the index.
+ */
+public class PostgreSQLFullTextDialect extends PostgreSQL10Dialect {
+
+    public PostgreSQLFullTextDialect() {
+        super();
+        registerFunction(
+            QueryService.FULL_TEXT_MATCH_FUNCTION,
+            new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN, "(to_tsvector('simple', ?1) @@ to_tsquery('simple', ?2 || ':*'))")
+        );
+        registerFunction(
+            QueryService.FULL_TEXT_RANK_FUNCTION,
+            new SQLFunctionTemplate(StandardBasicTypes.DOUBLE, "ts_rank(to_tsvector('simple', ?1), to_tsquery('simple', ?2 || ':*'))")
+        );
+    }
+}
@@ -1,10 +1,17 @@
 package dev.flaviojunior.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import dev.flaviojunior.common.util.IsbnUtil;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import java.io.Serializable;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
@@ -13,7 +20,16 @@ import java.util.Set;
  * Book.
  */
 @Entity
-@Table(name = "book")
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(
+        name = "book",
+        indexes = {
+                @Index(name = "idx_book_title_id", columnList = "title, id"),
+                @Index(name = "idx_book_isbn_id", columnList = "isbn, id")
+        },
+        uniqueConstraints = @UniqueConstraint(name = "ux_book_isbn_key", columnNames = "isbn_key")
+)
 public class Book implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -31,6 +47,14 @@ public class Book implements Serializable {
     @Column(name = "isbn", nullable = false)
     private String isbn;
 
+    /**
+     * Canonical form of the isbn, see {@link IsbnUtil#normalize(String)}, kept up to date with the isbn. It is the
+     * natural key of the book, which its hash code is computed from.
+     */
+    @JsonIgnore
+    @Column(name = "isbn_key")
+    private String isbnKey;
+
     @Column(name = "image_path")
     private String imagePath;
 
@@ -40,12 +64,35 @@ public class Book implements Serializable {
     @Column(name = "date_of_publication")
     private LocalDate dateOfPublication;
 
+    /**
+     * Time of the last write, which versions the representation for conditional requests. Only a change of
+     * the columns of the book triggers {@link PreUpdate}, so it is also set when only the authors or categories change.
+     */
+    @JsonIgnore
+    @Column(name = "last_modified_date")
+    private Instant lastModifiedDate;
+
+    /**
+     * Version of the stored row, which makes every update conditional on the version it was read with.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    /**
+     * Hash code of the entity, fixed by the first call of {@link #hashCode()}.
+     */
+    private transient Integer stableHashCode;
+
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(name = "book_author", joinColumns = @JoinColumn(name = "book_id"), inverseJoinColumns = @JoinColumn(name = "author_id"))
     @JsonIgnoreProperties(value = { "books" }, allowSetters = true)
     private Set<Author> authors = new HashSet<>();
 
     @ManyToMany(cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
             name = "book_category",
             joinColumns = @JoinColumn(name = "book_id"),
@@ -86,12 +133,24 @@ public class Book implements Serializable {
     }
 
     public Book isbn(String isbn) {
-        this.isbn = isbn;
+        this.setIsbn(isbn);
         return this;
     }
 
     public void setIsbn(String isbn) {
         this.isbn = isbn;
+        this.isbnKey = IsbnUtil.normalize(isbn);
+    }
+
+    public String getIsbnKey() {
+        return this.isbnKey;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void prepareWrite() {
+        this.isbnKey = IsbnUtil.normalize(this.isbn);
+        this.lastModifiedDate = Instant.now();
     }
 
     public String getImagePath() {
@@ -183,6 +242,27 @@ public class Book implements Serializable {
         this.categories = categories;
     }
 
+    public Instant getLastModifiedDate() {
+        return this.lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    public Book version(long version) {
+        this.version = version;
+        return this;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -193,13 +273,20 @@ public class Book implements Serializable {
         if (!(o instanceof Book)) {
             return false;
         }
-        return id != null && id.equals(((Book) o).id);
+        return id != null && id.equals(((Book) o).getId());
     }
 
     @Override
     public int hashCode() {
+        // The hash code never changes once computed, so a book stays in the sets it was added to when it is persisted
+        // or its isbn is updated. It is the hash of the id once allocated, which the copies of a persisted book share,
+        // and the identity hash of the instance before: a new book only equals itself, and keeps that hash once saved,
+        // so only the copies loaded afterwards have another one.
         // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
-        return getClass().hashCode();
+        if (stableHashCode == null) {
+            stableHashCode = id != null ? id.hashCode() : System.identityHashCode(this);
+        }
+        return stableHashCode;
     }
 
     // prettier-ignore
@@ -1,10 +1,16 @@
 package dev.flaviojunior.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -12,6 +18,8 @@ import java.util.Set;
  * Category.
  */
 @Entity
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "category")
 public class Category implements Serializable {
 
@@ -26,6 +34,26 @@ public class Category implements Serializable {
     @Column(name = "name", nullable = false)
     private String name;
 
+    /**
+     * Time of the last write, which versions the representation for conditional requests.
+     */
+    @JsonIgnore
+    @Column(name = "last_modified_date")
+    private Instant lastModifiedDate;
+
+    /**
+     * Version of the stored row, which makes every update conditional on the version it was read with.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    /**
+     * Hash code of the entity, fixed by the first call of {@link #hashCode()}.
+     */
+    private transient Integer stableHashCode;
+
     @ManyToMany(mappedBy = "categories")
     @JsonIgnoreProperties(value = { "authors", "categories" }, allowSetters = true)
     private Set<Book> books = new HashSet<>();
@@ -88,6 +116,33 @@ public class Category implements Serializable {
         this.books = books;
     }
 
+    public Instant getLastModifiedDate() {
+        return this.lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateLastModifiedDate() {
+        this.lastModifiedDate = Instant.now();
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    public Category version(long version) {
+        this.version = version;
+        return this;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -98,13 +153,16 @@ public class Category implements Serializable {
         if (!(o instanceof Category)) {
             return false;
         }
-        return id != null && id.equals(((Category) o).id);
+        return id != null && id.equals(((Category) o).getId());
     }
 
     @Override
     public int hashCode() {
-        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
-        return getClass().hashCode();
+        // Fixed once computed, like the hash code of a book: the id hash, or the identity hash while transient
+        if (stableHashCode == null) {
+            stableHashCode = id != null ? id.hashCode() : System.identityHashCode(this);
+        }
+        return stableHashCode;
     }
 
     // prettier-ignore
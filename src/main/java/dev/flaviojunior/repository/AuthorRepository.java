@@ -3,12 +3,19 @@ package dev.flaviojunior.repository;
 import dev.flaviojunior.domain.Author;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 /**
  * Spring Data SQL repository for the Author entity.
  */
 @SuppressWarnings("unused")
 @Repository
 public interface AuthorRepository extends JpaRepository<Author, Long>, JpaSpecificationExecutor<Author> {
+
+    @Query("select new dev.flaviojunior.repository.EntityState(author.id, author.version, author.lastModifiedDate) from Author author where author.id = :id")
+    Optional<EntityState> findStateById(@Param("id") Long id);
 }
@@ -1,34 +1,131 @@
 package dev.flaviojunior.repository;
 
 import dev.flaviojunior.domain.Book;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Spring Data SQL repository for the Book entity.
+ * <p>
+ * The relationships of a book are lazy: each use case which needs them declares them in the entity graph of its
+ * method, so they are loaded with the book, inside the transaction of the service.
  */
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>, BookRepositoryCustom {
+    String BOOK_ID_BY_ISBN_KEY_CACHE = "bookIdByIsbnKey";
+
+    @EntityGraph(attributePaths = { "authors", "categories" })
+    @Query("select book from Book book where book.id =:id")
+    Optional<Book> findOneWithEagerRelationships(@Param("id") Long id);
+
+    @EntityGraph(attributePaths = { "authors", "categories" })
+    @Query("select book from Book book where book.isbn =:isbn")
+    Optional<Book> findOneByIsbnWithEagerRelationships(@Param("isbn") String isbn);
+
+    /**
+     * Find the books without a canonical isbn whose isbn, stripped of its separators and upper-cased, is one of the
+     * given values. The isbns are compared through an expression, which no index serves. The associations are not
+     * fetched, a join of both would repeat each book once per author and category.
+     *
+     * @param isbns the isbns, without separators and upper-cased.
+     * @return the books.
+     */
+    @Query("select book from Book book where book.isbnKey is null and upper(replace(replace(book.isbn, '-', ''), ' ', '')) in :isbns")
+    List<Book> findAllWithoutIsbnKeyByCompactIsbnIn(@Param("isbns") Collection<String> isbns);
+
+    /**
+     * Find a book with its categories, which are cascaded from the book: deleting the book deletes them.
+     *
+     * @param id the id of the book.
+     * @return the book.
+     */
+    @EntityGraph(attributePaths = "categories")
+    Optional<Book> findWithCategoriesById(Long id);
+
+    /**
+     * Find the state of a book, with the latest modification of its authors and of its categories, which are part of
+     * its representation.
+     *
+     * @param id the id of the book.
+     * @return the state of the book.
+     */
     @Query(
-            value = "select distinct book from Book book left join fetch book.authors left join fetch book.categories",
-            countQuery = "select count(distinct book) from Book book"
+        "select new dev.flaviojunior.repository.EntityState(book.id, book.version, book.lastModifiedDate, " +
+        "(select max(author.lastModifiedDate) from Book bookAuthors join bookAuthors.authors author where bookAuthors = book), " +
+        "(select max(category.lastModifiedDate) from Book bookCategories join bookCategories.categories category where bookCategories = book)) " +
+        "from Book book where book.id = :id"
     )
-    Page<Book> findAllWithEagerRelationships(Pageable pageable);
+    Optional<EntityState> findStateById(@Param("id") Long id);
 
-    @Query("select distinct book from Book book left join fetch book.authors left join fetch book.categories")
-    List<Book> findAllWithEagerRelationships();
+    /**
+     * Find the id of the book with the given canonical isbn. Found ids are cached, so callers must check the isbn of the
+     * loaded book and evict the entry when it does not match.
+     *
+     * @param isbnKey the canonical isbn.
+     * @return the id of the book.
+     */
+    @Cacheable(cacheNames = BOOK_ID_BY_ISBN_KEY_CACHE, unless = "#result == null")
+    @Query("select book.id from Book book where book.isbnKey = :isbnKey")
+    Optional<Long> findIdByIsbnKey(@Param("isbnKey") String isbnKey);
 
-    @Query("select book from Book book left join fetch book.authors left join fetch book.categories where book.id =:id")
-    Optional<Book> findOneWithEagerRelationships(@Param("id") Long id);
+    /**
+     * Stream the ids of all the books, in id order, from a forward-only cursor. Must be called in a transaction and the
+     * stream must be closed.
+     *
+     * @return the ids of the books.
+     */
+    @Query("select book.id from Book book order by book.id")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<Long> streamAllIds();
 
-    @Query("select book from Book book left join fetch book.authors left join fetch book.categories where book.isbn =:isbn")
-    Optional<Book> findOneByIsbnWithEagerRelationships(@Param("isbn") String isbn);
+    @Query("select book.id, author from Book book join book.authors author where book.id in :ids")
+    List<Object[]> findAuthorsByBookIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select book.id, category from Book book join book.categories category where book.id in :ids")
+    List<Object[]> findCategoriesByBookIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "authors")
+    @Query("select distinct book from Book book where book.id in :ids")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    List<Book> findAllWithAuthorsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "categories")
+    @Query("select distinct book from Book book where book.id in :ids")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    List<Book> findAllWithCategoriesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Load the books with the given ids and their relationships, with one query per relationship so the result is
+     * not a cartesian product.
+     *
+     * @param ids the ids of the books.
+     * @return the books, in the order of the ids.
+     */
+    default List<Book> findAllWithEagerRelationshipsByIdIn(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Collection<Long> distinctIds = new LinkedHashSet<>(ids);
+        Map<Long, Book> books = findAllWithAuthorsByIdIn(distinctIds).stream().collect(Collectors.toMap(Book::getId, Function.identity()));
+        // Initializes the categories of the books already in the persistence context.
+        findAllWithCategoriesByIdIn(distinctIds);
+        return distinctIds.stream().map(books::get).filter(book -> book != null).collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,58 @@
+package dev.flaviojunior.repository;
+
+import dev.flaviojunior.domain.Book;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.Tuple;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Custom queries of the {@link BookRepository} which can not be expressed with Spring Data.
+ * <p>
+ * Listings are paged over the ids only, the books and their relationships are then loaded with
+ * {@link BookRepository#findAllWithEagerRelationshipsByIdIn(java.util.List)}, so no collection is fetched per row and
+ * no join fetch is paginated in memory.
+ */
+public interface BookRepositoryCustom {
+    /**
+     * Returns a {@link Page} of the ids of the books matching the specification. The count query is skipped when the
+     * page content tells the total.
+     *
+     * @param specification the specification to match, can be {@code null}.
+     * @param pageable      the pagination information.
+     * @return the page of ids.
+     */
+    Page<Long> findIdPage(Specification<Book> specification, Pageable pageable);
+
+    /**
+     * Returns a {@link Slice} of the ids of the books matching the specification. One row more than the page size is
+     * fetched to know whether a next slice exists, so no count query is issued.
+     *
+     * @param specification the specification to match, can be {@code null}.
+     * @param pageable      the pagination information.
+     * @return the slice of ids.
+     */
+    Slice<Long> findIdSlice(Specification<Book> specification, Pageable pageable);
+
+    /**
+     * Returns the given attributes of the books with the given ids, as tuples with an element per attribute, aliased by
+     * the name of the attribute. Only the columns of the attributes are selected.
+     *
+     * @param ids        the ids of the books.
+     * @param attributes the names of the singular attributes to select.
+     * @return the tuples, in no particular order.
+     */
+    List<Tuple> findAttributesByIdIn(Collection<Long> ids, List<String> attributes);
+
+    /**
+     * Returns an estimate of the number of books. On PostgreSQL it is read from the planner statistics in
+     * {@code pg_class.reltuples}, which does not scan the table; when no statistics are available the books are counted.
+     *
+     * @return the estimated number of books.
+     */
+    long estimateCount();
+}
@@ -0,0 +1,134 @@
+package dev.flaviojunior.repository;
+
+import dev.flaviojunior.domain.Book;
+import dev.flaviojunior.domain.Book_;
+import org.hibernate.Session;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Implementation of {@link BookRepositoryCustom}.
+ */
+class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile String databaseProductName;
+
+    @Override
+    public Page<Long> findIdPage(Specification<Book> specification, Pageable pageable) {
+        TypedQuery<Long> query = createIdQuery(specification, pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(query.getResultList());
+        }
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(specification));
+    }
+
+    @Override
+    public Slice<Long> findIdSlice(Specification<Book> specification, Pageable pageable) {
+        TypedQuery<Long> query = createIdQuery(specification, pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(query.getResultList(), pageable, false);
+        }
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize() + 1);
+        List<Long> content = query.getResultList();
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    @Override
+    public List<Tuple> findAttributesByIdIn(Collection<Long> ids, List<String> attributes) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Book> root = query.from(Book.class);
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String attribute : attributes) {
+            selections.add(root.get(attribute).alias(attribute));
+        }
+        query.multiselect(selections).where(root.get(Book_.id).in(ids));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public long estimateCount() {
+        if (POSTGRESQL.equals(getDatabaseProductName())) {
+            Number estimate = (Number) entityManager
+                .createNativeQuery("select cast(reltuples as bigint) from pg_class where oid = to_regclass('book')")
+                .getSingleResult();
+            if (estimate != null && estimate.longValue() > 0) {
+                return estimate.longValue();
+            }
+        }
+        return entityManager.createQuery("select count(book) from Book book", Long.class).getSingleResult();
+    }
+
+    private TypedQuery<Long> createIdQuery(Specification<Book> specification, Sort sort) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Book> root = query.from(Book.class);
+        query.select(root.get(Book_.id));
+        applySpecification(specification, root, query, builder);
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, builder));
+        }
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Book> specification) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Book> root = query.from(Book.class);
+        applySpecification(specification, root, query, builder);
+        // The specification may order the ids, which a count can not be
+        query.orderBy(Collections.emptyList());
+        query.select(query.isDistinct() ? builder.countDistinct(root) : builder.count(root));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private String getDatabaseProductName() {
+        if (databaseProductName == null) {
+            databaseProductName = entityManager
+                .unwrap(Session.class)
+                .doReturningWork(connection -> connection.getMetaData().getDatabaseProductName());
+        }
+        return databaseProductName;
+    }
+
+    private static <T> void applySpecification(Specification<Book> specification, Root<Book> root, CriteriaQuery<T> query,
+                                               CriteriaBuilder builder) {
+        if (specification == null) {
+            return;
+        }
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
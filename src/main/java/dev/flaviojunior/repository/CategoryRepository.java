@@ -3,12 +3,19 @@ package dev.flaviojunior.repository;
 import dev.flaviojunior.domain.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 /**
  * Spring Data SQL repository for the Category entity.
  */
 @SuppressWarnings("unused")
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long>, JpaSpecificationExecutor<Category> {
+
+    @Query("select new dev.flaviojunior.repository.EntityState(category.id, category.version, category.lastModifiedDate) from Category category where category.id = :id")
+    Optional<EntityState> findStateById(@Param("id") Long id);
 }
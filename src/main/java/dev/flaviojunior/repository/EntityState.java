@@ -0,0 +1,65 @@
+package dev.flaviojunior.repository;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Id, version and last modification of an entity, and of the entities embedded in its representation, read without loading
+ * the entities. It identifies the representation for conditional requests.
+ */
+public class EntityState {
+
+    private final Long id;
+
+    private final Long version;
+
+    private final List<Instant> lastModifiedDates;
+
+    public EntityState(Long id, Long version, Instant lastModifiedDate) {
+        this.id = id;
+        this.version = version;
+        this.lastModifiedDates = Collections.singletonList(lastModifiedDate);
+    }
+
+    public EntityState(
+        Long id,
+        Long version,
+        Instant lastModifiedDate,
+        Instant firstEmbeddedLastModifiedDate,
+        Instant secondEmbeddedLastModifiedDate
+    ) {
+        this.id = id;
+        this.version = version;
+        this.lastModifiedDates = Arrays.asList(lastModifiedDate, firstEmbeddedLastModifiedDate, secondEmbeddedLastModifiedDate);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the latest of the modifications, or {@code null} if it is not known.
+     */
+    public Instant getLastModifiedDate() {
+        return lastModifiedDates.stream().filter(Objects::nonNull).max(Instant::compareTo).orElse(null);
+    }
+
+    /**
+     * @return the strong entity tag of the representation, which changes with the version and any of the modifications.
+     * The representation is entirely derived from this state, so the tag can be used as an {@code If-Match} precondition.
+     */
+    public String getETag() {
+        return lastModifiedDates
+            .stream()
+            .map(date -> date == null ? "0" : date.getEpochSecond() + "." + date.getNano())
+            .collect(Collectors.joining("-", "\"" + id + "-" + version + "-", "\""));
+    }
+}
@@ -1,14 +1,24 @@
 package dev.flaviojunior.service;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.flaviojunior.domain.Book;
 import dev.flaviojunior.domain.Author;
 import dev.flaviojunior.repository.AuthorRepository;
+import dev.flaviojunior.repository.EntityState;
+import dev.flaviojunior.service.dto.AuthorDTO;
+import dev.flaviojunior.service.mapper.AuthorMapper;
+import org.hibernate.SessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
 import java.util.Optional;
 
 /**
@@ -22,19 +32,109 @@ public class AuthorService {
 
     private final AuthorRepository authorRepository;
 
-    public AuthorService(AuthorRepository authorRepository) {
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final LibrarySearchService librarySearchService;
+
+    private final CatalogVersion catalogVersion;
+
+    private final MergePatchService mergePatchService;
+
+    private final AuthorMapper authorMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public AuthorService(
+        AuthorRepository authorRepository,
+        EntityManagerFactory entityManagerFactory,
+        LibrarySearchService librarySearchService,
+        CatalogVersion catalogVersion,
+        MergePatchService mergePatchService,
+        AuthorMapper authorMapper
+    ) {
         this.authorRepository = authorRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.librarySearchService = librarySearchService;
+        this.catalogVersion = catalogVersion;
+        this.mergePatchService = mergePatchService;
+        this.authorMapper = authorMapper;
     }
 
     /**
      * Save a author.
      *
-     * @param author the entity to save.
+     * @param authorDTO the entity to save.
      * @return the persisted entity.
      */
-    public Author save(Author author) {
-        log.debug("Request to save Author : {}", author);
-        return authorRepository.save(author);
+    public AuthorDTO save(AuthorDTO authorDTO) {
+        log.debug("Request to save Author : {}", authorDTO);
+        return authorMapper.toDto(save(authorMapper.toEntity(authorDTO)));
+    }
+
+    private Author save(Author author) {
+        // Books are returned with their authors
+        catalogVersion.increment();
+        Author result = authorRepository.save(author);
+        librarySearchService.indexAuthor(result);
+        return result;
+    }
+
+    /**
+     * Update a author, if it exists.
+     * <p>
+     * The update is conditional on the version the author was read with, which it must have. The stored author is loaded
+     * by id, from the second-level cache when present, and refreshed only if its version differs, in case the cache
+     * is older than the request. The author is then updated in place instead of merged, so its flush is a single update
+     * of the changed columns, conditional on the version.
+     *
+     * @param authorDTO the entity to update.
+     * @return the persisted entity, or empty if there is no author with its id.
+     * @throws IllegalArgumentException if the author has no version.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the author was changed since it was read.
+     */
+    public Optional<AuthorDTO> update(AuthorDTO authorDTO) {
+        log.debug("Request to update Author : {}", authorDTO);
+        if (authorDTO.getVersion() == null) {
+            throw new IllegalArgumentException("A author can only be updated from the version it was read with");
+        }
+        long version = authorDTO.getVersion();
+        return authorRepository
+            .findById(authorDTO.getId())
+            .map(author -> {
+                if (author.getVersion() != version) {
+                    entityManager.refresh(author);
+                }
+                if (author.getVersion() != version) {
+                    throw new ObjectOptimisticLockingFailureException(Author.class, author.getId());
+                }
+                authorMapper.updateEntity(author, authorDTO);
+                return authorMapper.toDto(save(author));
+            });
+    }
+
+    /**
+     * Partially update a author with a JSON merge patch.
+     * <p>
+     * Only the members of the patch are written, and only the changed columns are updated.
+     *
+     * @param id    the id of the entity.
+     * @param patch the merge patch.
+     * @return the persisted entity, or empty if there is no author with the id.
+     * @throws IllegalArgumentException if the patch can not be applied.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the patch has a version and the author no longer has it.
+     * @throws javax.validation.ConstraintViolationException if the patched author is not valid.
+     */
+    public Optional<AuthorDTO> partialUpdate(Long id, ObjectNode patch) {
+        log.debug("Request to partially update Author : {}, {}", id, patch);
+        return authorRepository
+            .findById(id)
+            .map(author -> {
+                // The books are on the owning side, and are not patched through the author
+                mergePatchService.apply(author, id, author.getVersion(), patch, "books");
+                return save(author);
+            })
+            .map(authorMapper::toDto);
     }
 
     /**
@@ -44,9 +144,9 @@ public class AuthorService {
      * @return the list of entities.
      */
     @Transactional(readOnly = true)
-    public Page<Author> findAll(Pageable pageable) {
+    public Page<AuthorDTO> findAll(Pageable pageable) {
         log.debug("Request to get all Authors");
-        return authorRepository.findAll(pageable);
+        return authorRepository.findAll(pageable).map(authorMapper::toDto);
     }
 
     /**
@@ -56,18 +156,57 @@ public class AuthorService {
      * @return the entity.
      */
     @Transactional(readOnly = true)
-    public Optional<Author> findOne(Long id) {
+    public Optional<AuthorDTO> findOne(Long id) {
         log.debug("Request to get Author : {}", id);
-        return authorRepository.findById(id);
+        return authorRepository.findById(id).map(authorMapper::toDto);
+    }
+
+    /**
+     * Get one author by id, at least as recent as the given state: the author cached by this instance is refreshed from
+     * the database when another instance has written it since.
+     *
+     * @param id    the id of the entity.
+     * @param state the state of the entity, as read by {@link #findState(Long)}.
+     * @return the entity.
+     */
+    @Transactional(readOnly = true)
+    public Optional<AuthorDTO> findOne(Long id, EntityState state) {
+        log.debug("Request to get Author : {} in state {}", id, state.getETag());
+        return authorRepository
+            .findById(id)
+            .map(author -> {
+                EntityState loaded = new EntityState(author.getId(), author.getVersion(), author.getLastModifiedDate());
+                if (!state.getETag().equals(loaded.getETag())) {
+                    entityManager.refresh(author);
+                }
+                return authorMapper.toDto(author);
+            });
+    }
+
+    /**
+     * Get the state of one author, which identifies its representation, without loading it.
+     *
+     * @param id the id of the entity.
+     * @return the state of the entity.
+     */
+    @Transactional(readOnly = true)
+    public Optional<EntityState> findState(Long id) {
+        log.debug("Request to get the state of Author : {}", id);
+        return authorRepository.findStateById(id);
     }
 
     /**
      * Delete the author by id.
+     * <p>
+     * The author is removed from the inverse side of {@code Book.authors}, so the cached authors of the books are evicted.
      *
      * @param id the id of the entity.
      */
     public void delete(Long id) {
         log.debug("Request to delete Author : {}", id);
+        catalogVersion.increment();
         authorRepository.deleteById(id);
+        librarySearchService.removeAuthor(id);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictCollectionData(Book.class.getName() + ".authors");
     }
 }
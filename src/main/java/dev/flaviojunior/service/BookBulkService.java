@@ -0,0 +1,280 @@
+package dev.flaviojunior.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.flaviojunior.domain.Book;
+import dev.flaviojunior.repository.BookRepository;
+import dev.flaviojunior.service.dto.BookDTO;
+import dev.flaviojunior.service.dto.BulkItemResultDTO;
+import dev.flaviojunior.service.dto.BulkItemResultDTO.Status;
+import dev.flaviojunior.service.mapper.BookMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Service for the bulk creation, update and deletion of {@link Book}.
+ * <p>
+ * Valid items are processed in chunks, one transaction per chunk, so their statements are batched. When a chunk fails,
+ * it is rolled back and its items are retried one by one, each in its own transaction, so every item gets its own
+ * status. The chunks are independent transactions only when no transaction is active yet. Every attempt maps the items
+ * to new entities, or loads the stored ones again, so nothing a rolled back attempt left on them, like an allocated id,
+ * is carried over.
+ */
+@Service
+public class BookBulkService {
+
+    private final Logger log = LoggerFactory.getLogger(BookBulkService.class);
+
+    private final BookService bookService;
+
+    private final BookRepository bookRepository;
+
+    private final BookMapper bookMapper;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    private final int maxItems;
+
+    public BookBulkService(
+        BookService bookService,
+        BookRepository bookRepository,
+        BookMapper bookMapper,
+        Validator validator,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager,
+        @Value("${application.bulk.chunk-size:500}") int chunkSize,
+        @Value("${application.bulk.max-items:10000}") int maxItems
+    ) {
+        this.bookService = bookService;
+        this.bookRepository = bookRepository;
+        this.bookMapper = bookMapper;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Read the items of a bulk request sent as NDJSON, a JSON value per line. The items are read one by one, and the
+     * reading stops as soon as there are more than allowed in a request.
+     *
+     * @param <T>   the type of the items.
+     * @param input the body of the request.
+     * @param type  the type of the items.
+     * @return the items, in the order of the request.
+     * @throws IllegalArgumentException if there are more items than allowed in a request, or if an item can not be read.
+     */
+    public <T> List<T> readNdjson(InputStream input, Class<T> type) {
+        List<T> items = new ArrayList<>();
+        try (MappingIterator<T> iterator = objectMapper.readerFor(type).readValues(input)) {
+            while (iterator.hasNextValue()) {
+                items.add(iterator.nextValue());
+                checkSize(items);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid item " + items.size());
+        }
+        return items;
+    }
+
+    /**
+     * Create books.
+     *
+     * @param books the books to create, without id.
+     * @return the result of each book, in the order of the request.
+     * @throws IllegalArgumentException if there are more books than allowed in a request.
+     */
+    public List<BulkItemResultDTO> createAll(List<BookDTO> books) {
+        log.debug("Request to create {} Books", books.size());
+        checkSize(books);
+        BulkItemResultDTO[] results = new BulkItemResultDTO[books.size()];
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < books.size(); i++) {
+            BookDTO book = books.get(i);
+            String violations = book.getId() != null ? "A new book cannot already have an ID" : validate(book);
+            if (violations != null) {
+                results[i] = new BulkItemResultDTO(i, book.getId(), Status.INVALID, violations);
+            } else {
+                pending.add(i);
+            }
+        }
+        process(
+            pending,
+            results,
+            chunk -> {
+                for (int i : chunk) {
+                    Long id = bookService.save(bookMapper.toEntity(books.get(i))).getId();
+                    results[i] = new BulkItemResultDTO(i, id, Status.CREATED, null);
+                }
+            },
+            i -> books.get(i).getId()
+        );
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Update books.
+     * <p>
+     * A book is only updated if it still has the version it is sent with, otherwise its status is
+     * {@link Status#CONFLICT}. A book sent without a version is {@link Status#INVALID}.
+     *
+     * @param books the books to update, with their id.
+     * @return the result of each book, in the order of the request.
+     * @throws IllegalArgumentException if there are more books than allowed in a request.
+     */
+    public List<BulkItemResultDTO> updateAll(List<BookDTO> books) {
+        log.debug("Request to update {} Books", books.size());
+        checkSize(books);
+        BulkItemResultDTO[] results = new BulkItemResultDTO[books.size()];
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < books.size(); i++) {
+            BookDTO book = books.get(i);
+            String violations = book.getId() == null ? "Invalid id" : book.getVersion() == null ? "Missing version" : validate(book);
+            if (violations != null) {
+                results[i] = new BulkItemResultDTO(i, book.getId(), Status.INVALID, violations);
+            } else {
+                pending.add(i);
+            }
+        }
+        process(
+            pending,
+            results,
+            chunk -> {
+                // Loads the stored books of the chunk with one query, the updates are then applied to them
+                Set<Long> existingIds = findExistingIds(chunk.stream().map(i -> books.get(i).getId()).collect(Collectors.toList()));
+                for (int i : chunk) {
+                    BookDTO book = books.get(i);
+                    if (existingIds.contains(book.getId())) {
+                        Long id = bookService.updateEntity(book).orElseThrow().getId();
+                        results[i] = new BulkItemResultDTO(i, id, Status.UPDATED, null);
+                    } else {
+                        results[i] = new BulkItemResultDTO(i, book.getId(), Status.NOT_FOUND, "Entity not found");
+                    }
+                }
+            },
+            i -> books.get(i).getId()
+        );
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Delete books.
+     *
+     * @param ids the ids of the books to delete.
+     * @return the result of each id, in the order of the request.
+     * @throws IllegalArgumentException if there are more ids than allowed in a request.
+     */
+    public List<BulkItemResultDTO> deleteAll(List<Long> ids) {
+        log.debug("Request to delete {} Books", ids.size());
+        checkSize(ids);
+        BulkItemResultDTO[] results = new BulkItemResultDTO[ids.size()];
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) == null) {
+                results[i] = new BulkItemResultDTO(i, null, Status.INVALID, "Invalid id");
+            } else {
+                pending.add(i);
+            }
+        }
+        process(
+            pending,
+            results,
+            chunk -> {
+                // Deletes the books of the chunk together, which loads them with one query
+                Set<Long> deletedIds = bookService.deleteAll(chunk.stream().map(ids::get).collect(Collectors.toList()));
+                for (int i : chunk) {
+                    Long id = ids.get(i);
+                    if (deletedIds.contains(id)) {
+                        results[i] = new BulkItemResultDTO(i, id, Status.DELETED, null);
+                    } else {
+                        results[i] = new BulkItemResultDTO(i, id, Status.NOT_FOUND, "Entity not found");
+                    }
+                }
+            },
+            ids::get
+        );
+        return Arrays.asList(results);
+    }
+
+    private void process(
+        List<Integer> indexes,
+        BulkItemResultDTO[] results,
+        Consumer<List<Integer>> operation,
+        IntFunction<Long> idOf
+    ) {
+        for (int from = 0; from < indexes.size(); from += chunkSize) {
+            List<Integer> chunk = indexes.subList(from, Math.min(from + chunkSize, indexes.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> operation.accept(chunk));
+            } catch (RuntimeException e) {
+                log.warn("Bulk chunk of {} items failed, retrying them one by one : {}", chunk.size(), e.getMessage());
+                for (int index : chunk) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> operation.accept(Collections.singletonList(index)));
+                    } catch (RuntimeException itemException) {
+                        log.debug("Bulk item {} failed", index, itemException);
+                        results[index] = failure(index, idOf.apply(index), itemException);
+                    }
+                }
+            }
+        }
+    }
+
+    private Set<Long> findExistingIds(List<Long> ids) {
+        return bookRepository.findAllById(ids).stream().map(Book::getId).collect(Collectors.toSet());
+    }
+
+    private String validate(BookDTO book) {
+        Set<ConstraintViolation<BookDTO>> violations = validator.validate(book);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations
+            .stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining(", "));
+    }
+
+    private void checkSize(List<?> items) {
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("A bulk request cannot have more than " + maxItems + " items");
+        }
+    }
+
+    private static BulkItemResultDTO failure(int index, Long id, RuntimeException e) {
+        if (e instanceof IllegalArgumentException) {
+            return new BulkItemResultDTO(index, id, Status.INVALID, e.getMessage());
+        }
+        if (e instanceof DataIntegrityViolationException || e instanceof ConcurrencyFailureException) {
+            return new BulkItemResultDTO(index, id, Status.CONFLICT, "The item conflicts with the stored data");
+        }
+        return new BulkItemResultDTO(index, id, Status.FAILED, "The item could not be processed");
+    }
+}
@@ -0,0 +1,160 @@
+package dev.flaviojunior.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.flaviojunior.common.util.CsvWriter;
+import dev.flaviojunior.domain.Author;
+import dev.flaviojunior.domain.Book;
+import dev.flaviojunior.domain.Category;
+import dev.flaviojunior.repository.BookRepository;
+import dev.flaviojunior.service.mapper.BookMapper;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service for the export of the whole {@link Book} catalog.
+ * <p>
+ * The ids are read from a forward-only cursor and the books are loaded and written in chunks, then detached, so the
+ * memory used does not depend on the size of the catalog. The export does not read nor fill the second-level cache.
+ */
+@Service
+@Transactional(readOnly = true)
+public class BookExportService {
+
+    static final List<String> CSV_HEADER = Arrays.asList(
+        "id",
+        "title",
+        "isbn",
+        "publisher",
+        "dateOfPublication",
+        "imagePath",
+        "authors",
+        "categories"
+    );
+
+    private static final String CSV_LIST_SEPARATOR = "; ";
+
+    private final Logger log = LoggerFactory.getLogger(BookExportService.class);
+
+    private final BookRepository bookRepository;
+
+    private final BookMapper bookMapper;
+
+    private final ObjectWriter objectWriter;
+
+    private final int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public BookExportService(
+        BookRepository bookRepository,
+        BookMapper bookMapper,
+        ObjectMapper objectMapper,
+        @Value("${application.export.chunk-size:500}") int chunkSize
+    ) {
+        this.bookRepository = bookRepository;
+        this.bookMapper = bookMapper;
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Write all the books as newline delimited JSON, one {@link dev.flaviojunior.service.dto.BookDTO} per line.
+     *
+     * @param outputStream the stream to write to, which is left open.
+     * @throws IOException if the books can not be written.
+     */
+    public void exportNdjson(OutputStream outputStream) throws IOException {
+        log.debug("Request to export Books as NDJSON");
+        export(book -> {
+            outputStream.write(objectWriter.writeValueAsBytes(bookMapper.toDto(book)));
+            outputStream.write('\n');
+        });
+        outputStream.flush();
+    }
+
+    /**
+     * Write all the books as CSV, with a header line. Authors are written as {@code "Last name, First name"}, and
+     * several authors or categories are separated by {@code "; "}.
+     *
+     * @param outputStream the stream to write to, which is left open.
+     * @throws IOException if the books can not be written.
+     */
+    public void exportCsv(OutputStream outputStream) throws IOException {
+        log.debug("Request to export Books as CSV");
+        CsvWriter csvWriter = new CsvWriter(new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+        csvWriter.writeRecord(CSV_HEADER);
+        export(book ->
+            csvWriter.writeRecord(
+                Arrays.asList(
+                    String.valueOf(book.getId()),
+                    book.getTitle(),
+                    book.getIsbn(),
+                    book.getPublisher(),
+                    Objects.toString(book.getDateOfPublication(), null),
+                    book.getImagePath(),
+                    book
+                        .getAuthors()
+                        .stream()
+                        .sorted(Comparator.comparing(Author::getId))
+                        .map(author -> author.getLastName() + ", " + author.getFirstName())
+                        .collect(Collectors.joining(CSV_LIST_SEPARATOR)),
+                    book
+                        .getCategories()
+                        .stream()
+                        .sorted(Comparator.comparing(Category::getId))
+                        .map(Category::getName)
+                        .collect(Collectors.joining(CSV_LIST_SEPARATOR))
+                )
+            )
+        );
+        csvWriter.flush();
+    }
+
+    private void export(BookWriter bookWriter) throws IOException {
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        try (Stream<Long> ids = bookRepository.streamAllIds()) {
+            Iterator<Long> iterator = ids.iterator();
+            List<Long> chunk = new ArrayList<>(chunkSize);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                    for (Book book : bookRepository.findAllWithEagerRelationshipsByIdIn(chunk)) {
+                        bookWriter.write(book);
+                    }
+                    chunk.clear();
+                    // Detaches the written books
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface BookWriter {
+        void write(Book book) throws IOException;
+    }
+}
@@ -0,0 +1,358 @@
+package dev.flaviojunior.service;
+
+import dev.flaviojunior.common.util.CsvReader;
+import dev.flaviojunior.common.util.IsbnUtil;
+import dev.flaviojunior.domain.Author;
+import dev.flaviojunior.domain.Book;
+import dev.flaviojunior.domain.Category;
+import dev.flaviojunior.service.dto.BookImportResultDTO;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Service for the bulk import of {@link Book} from CSV files.
+ * <p>
+ * The file is parsed one record at a time and written in chunks, each chunk in its own transaction, with JDBC batch
+ * inserts which bypass the persistence context. Authors and categories are deduplicated in memory against the existing
+ * ones, and ids are allocated from the entity sequences through Hibernate, so they never collide with the ids of
+ * entities saved through JPA.
+ */
+@Service
+public class BookImportService {
+
+    static final String TITLE = "title";
+    static final String AUTHOR = "author";
+    static final String GENRE = "genre";
+    static final String SUB_GENRE = "subgenre";
+    static final String PUBLISHER = "publisher";
+    static final String ISBN = "isbn";
+
+    /**
+     * Prefix of the isbn given to the books imported without one, as the isbn is mandatory.
+     */
+    static final String PLACEHOLDER_ISBN_PREFIX = "CSV-";
+
+    private static final String INSERT_AUTHOR = "insert into author (id, first_name, last_name, last_modified_date, version) values (?, ?, ?, ?, 0)";
+    private static final String INSERT_CATEGORY = "insert into category (id, name, last_modified_date, version) values (?, ?, ?, 0)";
+    private static final String INSERT_BOOK =
+        "insert into book (id, title, isbn, isbn_key, publisher, last_modified_date, version) values (?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_BOOK_AUTHOR = "insert into book_author (book_id, author_id) values (?, ?)";
+    private static final String INSERT_BOOK_CATEGORY = "insert into book_category (book_id, category_id) values (?, ?)";
+
+    private static final int[] AUTHOR_TYPES = { Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP };
+    private static final int[] CATEGORY_TYPES = { Types.BIGINT, Types.VARCHAR, Types.TIMESTAMP };
+    private static final int[] BOOK_TYPES = { Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP };
+    private static final int[] JOIN_TYPES = { Types.BIGINT, Types.BIGINT };
+
+    private final Logger log = LoggerFactory.getLogger(BookImportService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final LibrarySearchService librarySearchService;
+
+    private final CatalogVersion catalogVersion;
+
+    private final int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public BookImportService(
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        LibrarySearchService librarySearchService,
+        CatalogVersion catalogVersion,
+        @Value("${application.import.chunk-size:1000}") int chunkSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.librarySearchService = librarySearchService;
+        this.catalogVersion = catalogVersion;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Import the books of a CSV file.
+     * <p>
+     * The first record is the header. The {@code Title} column is required, {@code Author} (as
+     * {@code "Last name, First name"}), {@code Genre}, {@code SubGenre}, {@code Publisher} and {@code ISBN} are
+     * optional and other columns are ignored. Rows whose isbn is already known are skipped.
+     *
+     * @param inputStream the UTF-8 encoded CSV content.
+     * @return the summary of the import.
+     * @throws IOException if the content can not be read.
+     * @throws IllegalArgumentException if the header has no {@code Title} column.
+     */
+    public BookImportResultDTO importCsv(InputStream inputStream) throws IOException {
+        log.debug("Request to import Books");
+        long start = System.nanoTime();
+        BookImportResultDTO result = new BookImportResultDTO();
+        Map<String, Long> authorIds = loadAuthorIds();
+        Map<String, Long> categoryIds = loadCategoryIds();
+        try (CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)))) {
+            List<String> header = reader.readRecord();
+            if (header != null) {
+                Map<String, Integer> columns = columns(header);
+                List<Row> chunk = new ArrayList<>(chunkSize);
+                List<String> record;
+                while ((record = reader.readRecord()) != null) {
+                    result.setRowsRead(result.getRowsRead() + 1);
+                    Row row = Row.of(record, columns);
+                    if (row == null) {
+                        result.setRowsSkipped(result.getRowsSkipped() + 1);
+                        continue;
+                    }
+                    chunk.add(row);
+                    if (chunk.size() == chunkSize) {
+                        importChunk(chunk, authorIds, categoryIds, result);
+                        chunk.clear();
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    importChunk(chunk, authorIds, categoryIds, result);
+                }
+            }
+        }
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("Imported books : {}", result);
+        return result;
+    }
+
+    private void importChunk(List<Row> chunk, Map<String, Long> authorIds, Map<String, Long> categoryIds, BookImportResultDTO result) {
+        // Authors and categories created by the chunk are only shared with the next chunks once committed
+        Map<String, Long> newAuthorIds = new HashMap<>();
+        Map<String, Long> newCategoryIds = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            catalogVersion.increment();
+            SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+            IdentifierGenerator bookIdGenerator = identifierGenerator(session, Book.class);
+            IdentifierGenerator authorIdGenerator = identifierGenerator(session, Author.class);
+            IdentifierGenerator categoryIdGenerator = identifierGenerator(session, Category.class);
+            Set<String> knownIsbnKeys = findExistingIsbnKeys(chunk);
+            Timestamp lastModifiedDate = Timestamp.from(Instant.now());
+
+            List<Object[]> authors = new ArrayList<>();
+            List<Object[]> categories = new ArrayList<>();
+            List<Object[]> books = new ArrayList<>();
+            List<Object[]> bookAuthors = new ArrayList<>();
+            List<Object[]> bookCategories = new ArrayList<>();
+            for (Row row : chunk) {
+                String isbnKey = IsbnUtil.normalize(row.isbn);
+                if (isbnKey != null && !knownIsbnKeys.add(isbnKey)) {
+                    result.setRowsSkipped(result.getRowsSkipped() + 1);
+                    continue;
+                }
+                long bookId = nextId(bookIdGenerator, session);
+                String isbn = row.isbn != null ? row.isbn : PLACEHOLDER_ISBN_PREFIX + bookId;
+                books.add(new Object[] { bookId, row.title, isbn, IsbnUtil.normalize(isbn), row.publisher, lastModifiedDate });
+                librarySearchService.indexBook(bookId, row.title);
+                if (row.authorKey != null) {
+                    Long authorId = authorIds.get(row.authorKey);
+                    if (authorId == null) {
+                        authorId = newAuthorIds.get(row.authorKey);
+                    }
+                    if (authorId == null) {
+                        authorId = nextId(authorIdGenerator, session);
+                        newAuthorIds.put(row.authorKey, authorId);
+                        authors.add(new Object[] { authorId, row.authorFirstName, row.authorLastName, lastModifiedDate });
+                        librarySearchService.indexAuthor(authorId, row.authorFirstName, row.authorLastName);
+                    }
+                    bookAuthors.add(new Object[] { bookId, authorId });
+                }
+                for (String categoryName : row.categories) {
+                    Long categoryId = categoryIds.get(categoryName);
+                    if (categoryId == null) {
+                        categoryId = newCategoryIds.get(categoryName);
+                    }
+                    if (categoryId == null) {
+                        categoryId = nextId(categoryIdGenerator, session);
+                        newCategoryIds.put(categoryName, categoryId);
+                        categories.add(new Object[] { categoryId, categoryName, lastModifiedDate });
+                        librarySearchService.indexCategory(categoryId, categoryName);
+                    }
+                    bookCategories.add(new Object[] { bookId, categoryId });
+                }
+            }
+            batchUpdate(INSERT_AUTHOR, authors, AUTHOR_TYPES);
+            batchUpdate(INSERT_CATEGORY, categories, CATEGORY_TYPES);
+            batchUpdate(INSERT_BOOK, books, BOOK_TYPES);
+            batchUpdate(INSERT_BOOK_AUTHOR, bookAuthors, JOIN_TYPES);
+            batchUpdate(INSERT_BOOK_CATEGORY, bookCategories, JOIN_TYPES);
+            result.setBooksImported(result.getBooksImported() + books.size());
+        });
+        authorIds.putAll(newAuthorIds);
+        categoryIds.putAll(newCategoryIds);
+        result.setAuthorsCreated(result.getAuthorsCreated() + newAuthorIds.size());
+        result.setCategoriesCreated(result.getCategoriesCreated() + newCategoryIds.size());
+    }
+
+    private Map<String, Long> loadAuthorIds() {
+        Map<String, Long> authorIds = new HashMap<>();
+        jdbcTemplate.query(
+            "select id, first_name, last_name from author",
+            rs -> {
+                authorIds.putIfAbsent(Row.authorKey(rs.getString("first_name"), rs.getString("last_name")), rs.getLong("id"));
+            }
+        );
+        return authorIds;
+    }
+
+    private Map<String, Long> loadCategoryIds() {
+        Map<String, Long> categoryIds = new HashMap<>();
+        jdbcTemplate.query("select id, name from category", rs -> {
+            categoryIds.putIfAbsent(rs.getString("name"), rs.getLong("id"));
+        });
+        return categoryIds;
+    }
+
+    private Set<String> findExistingIsbnKeys(List<Row> chunk) {
+        Set<String> isbnKeys = chunk
+            .stream()
+            .map(row -> IsbnUtil.normalize(row.isbn))
+            .filter(isbnKey -> isbnKey != null)
+            .collect(Collectors.toSet());
+        if (isbnKeys.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(
+            namedParameterJdbcTemplate.queryForList(
+                "select isbn_key from book where isbn_key in (:isbnKeys)",
+                Collections.singletonMap("isbnKeys", isbnKeys),
+                String.class
+            )
+        );
+    }
+
+    private void batchUpdate(String sql, List<Object[]> batchArgs, int[] argTypes) {
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batchArgs, argTypes);
+        }
+    }
+
+    private static IdentifierGenerator identifierGenerator(SharedSessionContractImplementor session, Class<?> entityClass) {
+        SessionFactoryImplementor sessionFactory = session.getFactory();
+        return sessionFactory.getMetamodel().entityPersister(entityClass).getIdentifierGenerator();
+    }
+
+    private static long nextId(IdentifierGenerator identifierGenerator, SharedSessionContractImplementor session) {
+        return ((Number) identifierGenerator.generate(session, null)).longValue();
+    }
+
+    private static Map<String, Integer> columns(List<String> header) {
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey(TITLE)) {
+            throw new IllegalArgumentException("The CSV header has no Title column");
+        }
+        return columns;
+    }
+
+    /**
+     * A parsed CSV row.
+     */
+    static final class Row {
+
+        private final String title;
+        private final String isbn;
+        private final String publisher;
+        private final String authorFirstName;
+        private final String authorLastName;
+        private final String authorKey;
+        private final Set<String> categories;
+
+        private Row(String title, String isbn, String publisher, String author, Set<String> categories) {
+            this.title = title;
+            this.isbn = isbn;
+            this.publisher = publisher;
+            if (author == null) {
+                this.authorFirstName = null;
+                this.authorLastName = null;
+                this.authorKey = null;
+            } else {
+                int comma = author.indexOf(',');
+                this.authorLastName = comma < 0 ? author : author.substring(0, comma).trim();
+                this.authorFirstName = comma < 0 ? "" : author.substring(comma + 1).trim();
+                this.authorKey = authorKey(authorFirstName, authorLastName);
+            }
+            this.categories = categories;
+        }
+
+        /**
+         * @return the row, or {@code null} if it has no title.
+         */
+        static Row of(List<String> record, Map<String, Integer> columns) {
+            String title = value(record, columns, TITLE);
+            if (title == null) {
+                return null;
+            }
+            Set<String> categories = new LinkedHashSet<>(2);
+            String genre = value(record, columns, GENRE);
+            if (genre != null) {
+                categories.add(genre);
+            }
+            String subGenre = value(record, columns, SUB_GENRE);
+            if (subGenre != null) {
+                categories.add(subGenre);
+            }
+            return new Row(
+                title,
+                value(record, columns, ISBN),
+                value(record, columns, PUBLISHER),
+                value(record, columns, AUTHOR),
+                categories
+            );
+        }
+
+        static String authorKey(String firstName, String lastName) {
+            return lastName + '\u0000' + firstName;
+        }
+
+        private static String value(List<String> record, Map<String, Integer> columns, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= record.size()) {
+                return null;
+            }
+            String value = record.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+}
@@ -1,33 +1,121 @@
 package dev.flaviojunior.service;
 
+import dev.flaviojunior.common.service.KeysetCursor;
 import dev.flaviojunior.common.service.QueryService;
+import dev.flaviojunior.common.service.filter.StringFilter;
+import dev.flaviojunior.domain.Author;
 import dev.flaviojunior.domain.Author_;
 import dev.flaviojunior.domain.Book;
 import dev.flaviojunior.domain.Book_;
+import dev.flaviojunior.domain.Category;
 import dev.flaviojunior.domain.Category_;
 import dev.flaviojunior.repository.BookRepository;
 import dev.flaviojunior.service.criteria.BookCriteria;
+import dev.flaviojunior.service.dto.BookDTO;
+import dev.flaviojunior.service.mapper.AuthorMapper;
+import dev.flaviojunior.service.mapper.BookMapper;
+import dev.flaviojunior.service.mapper.CategoryMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.Tuple;
+import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Order;
+import javax.persistence.metamodel.SingularAttribute;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
 public class BookQueryService extends QueryService<Book> {
 
+    /**
+     * Results of {@link #findByCriteria(BookCriteria, Pageable)} and {@link #countByCriteria(BookCriteria)}, keyed by
+     * the version of the {@link CatalogVersion} they were read at, which the writes of this instance change, and by its
+     * staleness window, which bounds how long the writes of the other instances go unseen. A hit costs no statement.
+     * Pages are cached as DTOs, which hold no session state.
+     */
+    public static final String BOOK_QUERY_RESULTS_CACHE = "bookQueryResults";
+
+    /**
+     * Sort property ordering the books by relevance to the full-text searches of the criteria, the most relevant first
+     * whatever the direction. The relevance is no attribute of the book, so it is ordered by the id query itself.
+     */
+    public static final String RELEVANCE = "relevance";
+
+    /**
+     * Properties which can be used as keyset, they can not be null so they are totally ordered together with the id.
+     */
+    private static final Set<String> KEYSET_PROPERTIES = Set.of(Book_.ID, Book_.TITLE, Book_.ISBN);
+
+    /**
+     * Fields which can be selected by {@link #findFieldsByCriteria(BookCriteria, Collection, Pageable)}, in the order
+     * they are returned.
+     */
+    private static final List<String> FIELDS = List.of(
+            Book_.ID,
+            Book_.TITLE,
+            Book_.ISBN,
+            Book_.IMAGE_PATH,
+            Book_.PUBLISHER,
+            Book_.DATE_OF_PUBLICATION,
+            Book_.AUTHORS,
+            Book_.CATEGORIES
+    );
+
     private final Logger log = LoggerFactory.getLogger(BookQueryService.class);
 
     private final BookRepository bookRepository;
 
-    public BookQueryService(BookRepository bookRepository) {
+    private final CacheManager cacheManager;
+
+    private final CatalogVersion catalogVersion;
+
+    private final BookMapper bookMapper;
+
+    private final AuthorMapper authorMapper;
+
+    private final CategoryMapper categoryMapper;
+
+    public BookQueryService(
+            BookRepository bookRepository,
+            CacheManager cacheManager,
+            CatalogVersion catalogVersion,
+            BookMapper bookMapper,
+            AuthorMapper authorMapper,
+            CategoryMapper categoryMapper
+    ) {
         this.bookRepository = bookRepository;
+        this.cacheManager = cacheManager;
+        this.catalogVersion = catalogVersion;
+        this.bookMapper = bookMapper;
+        this.authorMapper = authorMapper;
+        this.categoryMapper = categoryMapper;
     }
 
     @Transactional(readOnly = true)
@@ -37,18 +125,240 @@ public class BookQueryService extends QueryService<Book> {
         return bookRepository.findAll(specification);
     }
 
+    /**
+     * Return a {@link Page} of {@link BookDTO} which matches the criteria, with their authors and categories. The page is
+     * selected over the ids only, then the books are loaded with one query per relationship and mapped to DTOs. The page
+     * is cached until the catalog changes.
+     *
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page     The page, which should be returned.
+     * @return the matching entities.
+     * @throws IllegalArgumentException if the page is sorted by {@value #RELEVANCE} without a full-text search.
+     */
     @Transactional(readOnly = true)
-    public Page<Book> findByCriteria(BookCriteria criteria, Pageable page) {
+    public Page<BookDTO> findByCriteria(BookCriteria criteria, Pageable page) {
         log.debug("find by criteria : {}, page: {}", criteria, page);
+        return cached(ResultKind.PAGE, criteria, page, () -> {
+            Page<Long> ids = findIdPage(criteria, page);
+            List<BookDTO> content = bookMapper.toDto(bookRepository.findAllWithEagerRelationshipsByIdIn(ids.getContent()));
+            return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
+        });
+    }
+
+    /**
+     * Return a {@link Page} of the given fields of the {@link Book} which matches the criteria. The page is selected
+     * over the ids only, like {@link #findByCriteria(BookCriteria, Pageable)}, then only the columns of the requested
+     * fields are selected, and the authors and categories are only loaded if they are requested. The id is always
+     * returned.
+     *
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param fields   The names of the fields to return.
+     * @param page     The page, which should be returned.
+     * @return the fields of the matching entities, by name.
+     * @throws IllegalArgumentException if a field is unknown, or if the page is sorted by {@value #RELEVANCE} without a
+     *                                  full-text search.
+     */
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> findFieldsByCriteria(BookCriteria criteria, Collection<String> fields, Pageable page) {
+        log.debug("find fields by criteria : {}, fields: {}, page: {}", criteria, fields, page);
+        for (String field : fields) {
+            if (!FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown field " + field);
+            }
+        }
+        List<String> attributes = FIELDS
+                .stream()
+                .filter(field -> Book_.ID.equals(field) || (fields.contains(field) && !isRelationship(field)))
+                .collect(Collectors.toList());
+        Page<Long> ids = findIdPage(criteria, page);
+        if (ids.isEmpty()) {
+            return new PageImpl<>(new ArrayList<>(), ids.getPageable(), ids.getTotalElements());
+        }
+
+        // The books are returned in the order of the page
+        Map<Long, Map<String, Object>> books = new LinkedHashMap<>();
+        ids.forEach(id -> books.put(id, null));
+        List<Long> distinctIds = new ArrayList<>(books.keySet());
+        for (Tuple tuple : bookRepository.findAttributesByIdIn(distinctIds, attributes)) {
+            Map<String, Object> book = new LinkedHashMap<>();
+            attributes.forEach(attribute -> book.put(attribute, tuple.get(attribute)));
+            books.put(tuple.get(Book_.ID, Long.class), book);
+        }
+        if (fields.contains(Book_.AUTHORS)) {
+            List<Object[]> authors = bookRepository.findAuthorsByBookIdIn(distinctIds);
+            putRelationship(books, Book_.AUTHORS, authors, author -> authorMapper.toDto((Author) author));
+        }
+        if (fields.contains(Book_.CATEGORIES)) {
+            List<Object[]> categories = bookRepository.findCategoriesByBookIdIn(distinctIds);
+            putRelationship(books, Book_.CATEGORIES, categories, category -> categoryMapper.toDto((Category) category));
+        }
+        List<Map<String, Object>> content = books.values().stream().filter(Objects::nonNull).collect(Collectors.toList());
+        return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
+    }
+
+    /**
+     * Return a {@link Slice} of {@link BookDTO} which matches the criteria, without counting the matching entities.
+     *
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page     The page, which should be returned.
+     * @return the matching entities.
+     * @throws IllegalArgumentException if the page is sorted by {@value #RELEVANCE} without a full-text search.
+     */
+    @Transactional(readOnly = true)
+    public Slice<BookDTO> findSliceByCriteria(BookCriteria criteria, Pageable page) {
+        log.debug("find slice by criteria : {}, page: {}", criteria, page);
         final Specification<Book> specification = createSpecification(criteria);
-        return bookRepository.findAll(specification, page);
+        if (page.getSort().getOrderFor(RELEVANCE) == null) {
+            return hydrate(bookRepository.findIdSlice(specification, page));
+        }
+        Slice<Long> ids = bookRepository.findIdSlice(
+                specification.and(createRelevanceOrderSpecification(criteria, page.getSort())),
+                unsorted(page)
+        );
+        return hydrate(new SliceImpl<>(ids.getContent(), page, ids.hasNext()));
+    }
+
+    /**
+     * Return a {@link Slice} of {@link BookDTO} which matches the criteria, positioned right after the cursor. The first sort
+     * order of the page is used as keyset, with the id as tie-breaker, so the query cost does not depend on how deep the
+     * client has paged.
+     *
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor   The position of the previous slice, or {@code null} to start from the beginning.
+     * @param page     The page, which should be returned; only its size and sort are used.
+     * @return the matching entities.
+     * @throws IllegalArgumentException if the sort is not supported or does not match the cursor.
+     */
+    @Transactional(readOnly = true)
+    public Slice<BookDTO> findByCriteria(BookCriteria criteria, KeysetCursor cursor, Pageable page) {
+        log.debug("find by criteria : {}, cursor: {}, page: {}", criteria, cursor, page);
+        Sort.Order order = page.getSort().stream().findFirst().orElse(Sort.Order.asc(Book_.ID));
+        if (!KEYSET_PROPERTIES.contains(order.getProperty())) {
+            throw new IllegalArgumentException("Cursor pagination is not supported on " + order.getProperty());
+        }
+        if (cursor != null && (!cursor.getProperty().equals(order.getProperty()) || cursor.getDirection() != order.getDirection())) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        Specification<Book> specification = createSpecification(criteria);
+        if (cursor != null) {
+            specification = specification.and(createKeysetSpecification(cursor));
+        }
+        Sort sort = Book_.ID.equals(order.getProperty()) ? Sort.by(order) : Sort.by(order, new Sort.Order(order.getDirection(), Book_.ID));
+        return hydrate(bookRepository.findIdSlice(specification, PageRequest.of(0, page.getPageSize(), sort)));
+    }
+
+    /**
+     * Create the cursor pointing right after the given slice.
+     *
+     * @param slice a slice returned by {@link #findByCriteria(BookCriteria, KeysetCursor, Pageable)}.
+     * @return the cursor of the next slice, or {@code null} if there is none.
+     */
+    public KeysetCursor nextCursor(Slice<BookDTO> slice) {
+        if (!slice.hasNext() || !slice.hasContent()) {
+            return null;
+        }
+        Sort.Order order = slice.getSort().iterator().next();
+        BookDTO last = slice.getContent().get(slice.getNumberOfElements() - 1);
+        String value;
+        if (Book_.TITLE.equals(order.getProperty())) {
+            value = last.getTitle();
+        } else if (Book_.ISBN.equals(order.getProperty())) {
+            value = last.getIsbn();
+        } else {
+            value = null;
+        }
+        return new KeysetCursor(order.getProperty(), order.getDirection(), last.getId(), value);
     }
 
+    /**
+     * Return the number of {@link Book} which matches the criteria. The number is cached until the catalog changes.
+     *
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the number of matching entities.
+     */
     @Transactional(readOnly = true)
     public long countByCriteria(BookCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
+        Long count = cached(ResultKind.COUNT, criteria, null, () -> {
+            final Specification<Book> specification = createSpecification(criteria);
+            return bookRepository.count(specification);
+        });
+        return count;
+    }
+
+    /**
+     * Estimate the number of {@link Book} which matches the criteria from the database statistics. Statistics are only
+     * kept per table, so only unfiltered criteria can be estimated.
+     *
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the estimate, or empty if the criteria can not be estimated.
+     */
+    @Transactional(readOnly = true)
+    public OptionalLong estimateCountByCriteria(BookCriteria criteria) {
+        log.debug("estimate count by criteria : {}", criteria);
+        if (criteria != null && !criteria.equals(new BookCriteria())) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(bookRepository.estimateCount());
+    }
+
+    private Page<Long> findIdPage(BookCriteria criteria, Pageable page) {
         final Specification<Book> specification = createSpecification(criteria);
-        return bookRepository.count(specification);
+        if (page.getSort().getOrderFor(RELEVANCE) == null) {
+            return bookRepository.findIdPage(specification, page);
+        }
+        Page<Long> ids = bookRepository.findIdPage(
+                specification.and(createRelevanceOrderSpecification(criteria, page.getSort())),
+                unsorted(page)
+        );
+        return new PageImpl<>(ids.getContent(), page, ids.getTotalElements());
+    }
+
+    private static Pageable unsorted(Pageable page) {
+        return page.isPaged() ? PageRequest.of(page.getPageNumber(), page.getPageSize()) : Pageable.unpaged();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T cached(ResultKind kind, BookCriteria criteria, Pageable page, Supplier<T> query) {
+        Cache cache = cacheManager.getCache(BOOK_QUERY_RESULTS_CACHE);
+        if (cache == null) {
+            return query.get();
+        }
+        // Read before querying, so a result is never stored under a version newer than its data
+        ResultKey key = new ResultKey(catalogVersion.getWindow(), catalogVersion.get(), kind, criteria, page);
+        Cache.ValueWrapper cachedResult = cache.get(key);
+        if (cachedResult != null) {
+            return (T) cachedResult.get();
+        }
+        T result = query.get();
+        cache.put(key, result);
+        return result;
+    }
+
+    private static boolean isRelationship(String field) {
+        return Book_.AUTHORS.equals(field) || Book_.CATEGORIES.equals(field);
+    }
+
+    private static void putRelationship(
+            Map<Long, Map<String, Object>> books,
+            String field,
+            List<Object[]> rows,
+            Function<Object, Object> mapper
+    ) {
+        Map<Long, List<Object>> elements = new HashMap<>();
+        for (Object[] row : rows) {
+            elements.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(mapper.apply(row[1]));
+        }
+        books.forEach((id, book) -> {
+            if (book != null) {
+                book.put(field, elements.getOrDefault(id, new ArrayList<>()));
+            }
+        });
+    }
+
+    private Slice<BookDTO> hydrate(Slice<Long> ids) {
+        List<BookDTO> content = bookMapper.toDto(bookRepository.findAllWithEagerRelationshipsByIdIn(ids.getContent()));
+        return new SliceImpl<>(content, ids.getPageable(), ids.hasNext());
     }
 
     protected Specification<Book> createSpecification(BookCriteria criteria) {
@@ -87,4 +397,131 @@ public class BookQueryService extends QueryService<Book> {
         }
         return specification;
     }
+
+    /**
+     * Order the books by the given sort, in which {@value #RELEVANCE} is the sum of the ranks of the full-text searches
+     * of the criteria, with the id as tie-breaker. The specification orders the query and does not filter it.
+     *
+     * @throws IllegalArgumentException if the criteria have no full-text search.
+     */
+    protected Specification<Book> createRelevanceOrderSpecification(BookCriteria criteria, Sort sort) {
+        Map<SingularAttribute<Book, String>, String> searches = new LinkedHashMap<>();
+        if (criteria != null) {
+            putSearch(searches, Book_.title, criteria.getTitle());
+            putSearch(searches, Book_.isbn, criteria.getIsbn());
+            putSearch(searches, Book_.imagePath, criteria.getImagePath());
+            putSearch(searches, Book_.publisher, criteria.getPublisher());
+        }
+        if (searches.isEmpty()) {
+            throw new IllegalArgumentException("Only a full-text search can be sorted by " + RELEVANCE);
+        }
+        return (root, query, builder) -> {
+            Expression<Double> relevance = null;
+            for (Map.Entry<SingularAttribute<Book, String>, String> search : searches.entrySet()) {
+                Expression<Double> rank = searchRank(root.get(search.getKey()), search.getValue(), builder);
+                if (rank != null) {
+                    relevance = relevance == null ? rank : builder.sum(relevance, rank);
+                }
+            }
+            List<Order> orders = new ArrayList<>();
+            for (Sort.Order order : sort) {
+                if (!RELEVANCE.equals(order.getProperty())) {
+                    orders.addAll(QueryUtils.toOrders(Sort.by(order), root, builder));
+                } else if (relevance != null) {
+                    orders.add(builder.desc(relevance));
+                }
+            }
+            orders.add(builder.asc(root.get(Book_.id)));
+            query.orderBy(orders);
+            return null;
+        };
+    }
+
+    private static void putSearch(Map<SingularAttribute<Book, String>, String> searches, SingularAttribute<Book, String> attribute,
+                                  StringFilter filter) {
+        if (filter != null && filter.getSearch() != null) {
+            searches.put(attribute, filter.getSearch());
+        }
+    }
+
+    protected Specification<Book> createKeysetSpecification(KeysetCursor cursor) {
+        final Long id = cursor.getId();
+        final boolean ascending = cursor.getDirection().isAscending();
+        if (Book_.ID.equals(cursor.getProperty())) {
+            return ascending ? greaterThan(root -> root.get(Book_.id), id) : lessThan(root -> root.get(Book_.id), id);
+        }
+        if (cursor.getValue() == null) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        final String value = cursor.getValue();
+        final SingularAttribute<Book, String> key = Book_.TITLE.equals(cursor.getProperty()) ? Book_.title : Book_.isbn;
+        return (root, query, builder) -> {
+            Expression<String> keyPath = root.get(key);
+            Expression<Long> idPath = root.get(Book_.id);
+            if (ascending) {
+                return builder.or(
+                        builder.greaterThan(keyPath, value),
+                        builder.and(builder.equal(keyPath, value), builder.greaterThan(idPath, id))
+                );
+            }
+            return builder.or(
+                    builder.lessThan(keyPath, value),
+                    builder.and(builder.equal(keyPath, value), builder.lessThan(idPath, id))
+            );
+        };
+    }
+
+    private enum ResultKind {
+        PAGE,
+        COUNT,
+    }
+
+    /**
+     * Key of a cached result: the criteria without filters is the same as no criteria.
+     */
+    private static final class ResultKey implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long window;
+
+        private final long version;
+
+        private final ResultKind kind;
+
+        private final BookCriteria criteria;
+
+        private final Pageable page;
+
+        ResultKey(long window, long version, ResultKind kind, BookCriteria criteria, Pageable page) {
+            this.window = window;
+            this.version = version;
+            this.kind = kind;
+            this.criteria = criteria == null ? new BookCriteria() : criteria.copy();
+            this.page = page;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ResultKey)) {
+                return false;
+            }
+            ResultKey other = (ResultKey) o;
+            return (
+                window == other.window &&
+                version == other.version &&
+                kind == other.kind &&
+                criteria.equals(other.criteria) &&
+                Objects.equals(page, other.page)
+            );
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(window, version, kind, criteria, page);
+        }
+    }
 }
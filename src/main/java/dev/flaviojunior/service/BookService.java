@@ -1,16 +1,42 @@
 package dev.flaviojunior.service;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.flaviojunior.common.util.IsbnUtil;
+import dev.flaviojunior.domain.Author;
 import dev.flaviojunior.domain.Book;
+import dev.flaviojunior.domain.Category;
+import dev.flaviojunior.repository.AuthorRepository;
 import dev.flaviojunior.repository.BookRepository;
+import dev.flaviojunior.repository.CategoryRepository;
+import dev.flaviojunior.repository.EntityState;
+import dev.flaviojunior.service.dto.AuthorDTO;
+import dev.flaviojunior.service.dto.BookDTO;
+import dev.flaviojunior.service.dto.CategoryDTO;
+import dev.flaviojunior.service.mapper.BookMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Service Implementation for managing {@link Book}.
@@ -23,63 +49,318 @@ public class BookService {
 
     private final BookRepository bookRepository;
 
-    public BookService(BookRepository bookRepository) {
+    private final CacheManager cacheManager;
+
+    private final LibrarySearchService librarySearchService;
+
+    private final CatalogVersion catalogVersion;
+
+    private final AuthorRepository authorRepository;
+
+    private final CategoryRepository categoryRepository;
+
+    private final MergePatchService mergePatchService;
+
+    private final BookMapper bookMapper;
+
+    private final IsbnKeyBackfillService isbnKeyBackfillService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public BookService(
+        BookRepository bookRepository,
+        CacheManager cacheManager,
+        LibrarySearchService librarySearchService,
+        CatalogVersion catalogVersion,
+        AuthorRepository authorRepository,
+        CategoryRepository categoryRepository,
+        MergePatchService mergePatchService,
+        BookMapper bookMapper,
+        IsbnKeyBackfillService isbnKeyBackfillService
+    ) {
         this.bookRepository = bookRepository;
+        this.cacheManager = cacheManager;
+        this.librarySearchService = librarySearchService;
+        this.catalogVersion = catalogVersion;
+        this.authorRepository = authorRepository;
+        this.categoryRepository = categoryRepository;
+        this.mergePatchService = mergePatchService;
+        this.bookMapper = bookMapper;
+        this.isbnKeyBackfillService = isbnKeyBackfillService;
     }
 
     /**
      * Save a book.
      *
-     * @param book the entity to save.
+     * @param bookDTO the entity to save.
      * @return the persisted entity.
      */
-    public Book save(Book book) {
+    public BookDTO save(BookDTO bookDTO) {
+        return bookMapper.toDto(save(bookMapper.toEntity(bookDTO)));
+    }
+
+    /**
+     * Save a book entity, for the bulk operations which map their items themselves.
+     */
+    Book save(Book book) {
         log.debug("Request to save Book : {}", book);
-        return bookRepository.save(book);
+        evictIsbnKey(IsbnUtil.normalize(book.getIsbn()));
+        catalogVersion.increment();
+        // Changing only the authors or categories does not trigger the @PreUpdate of the book
+        book.setLastModifiedDate(Instant.now());
+        Book result = bookRepository.save(book);
+        librarySearchService.indexBook(result);
+        return result;
     }
 
     /**
-     * Get all the books.
+     * Update a book, if it exists.
+     * <p>
+     * The update is conditional on the version the book was read with, which it must have. The stored book is loaded
+     * by id, from the second-level cache when present, and refreshed only if its version differs, in case the cache
+     * is older than the request. The book is then updated in place instead of merged: its flush is a single update of
+     * the changed columns, conditional on the version, and only the join table rows which differ are written. The
+     * authors and categories are referred to by id, and only those added are loaded.
      *
-     * @return the list of entities.
+     * @param bookDTO the entity to update.
+     * @return the persisted entity, or empty if there is no book with its id.
+     * @throws IllegalArgumentException if the book has no version, or refers to unknown authors or categories.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the book was changed since it was read.
      */
-    @Transactional(readOnly = true)
-    public List<Book> findAll() {
-        log.debug("Request to get all Books");
-        return bookRepository.findAllWithEagerRelationships();
+    public Optional<BookDTO> update(BookDTO bookDTO) {
+        return updateEntity(bookDTO).map(bookMapper::toDto);
+    }
+
+    /**
+     * Update a book, if it exists, for the bulk operations which do not map the result.
+     */
+    Optional<Book> updateEntity(BookDTO bookDTO) {
+        log.debug("Request to update Book : {}", bookDTO);
+        if (bookDTO.getVersion() == null) {
+            throw new IllegalArgumentException("A book can only be updated from the version it was read with");
+        }
+        long version = bookDTO.getVersion();
+        return bookRepository
+            .findById(bookDTO.getId())
+            .map(book -> {
+                if (book.getVersion() != version) {
+                    entityManager.refresh(book);
+                }
+                if (book.getVersion() != version) {
+                    throw new ObjectOptimisticLockingFailureException(Book.class, book.getId());
+                }
+                // The cached id of the previous isbn is stale if the isbn changes
+                evictIsbnKey(book.getIsbnKey());
+                bookMapper.updateEntity(book, bookDTO);
+                MergePatchService.replaceAll(
+                    book.getAuthors(),
+                    idsOf(bookDTO.getAuthors(), AuthorDTO::getId, "author"),
+                    Author::getId,
+                    authorRepository::findAllById,
+                    "author"
+                );
+                MergePatchService.replaceAll(
+                    book.getCategories(),
+                    idsOf(bookDTO.getCategories(), CategoryDTO::getId, "category"),
+                    Category::getId,
+                    categoryRepository::findAllById,
+                    "category"
+                );
+                return save(book);
+            });
+    }
+
+    private static <D> List<Long> idsOf(Collection<D> dtos, Function<D, Long> idOf, String name) {
+        List<Long> ids = new ArrayList<>();
+        if (dtos == null) {
+            return ids;
+        }
+        for (D dto : dtos) {
+            Long id = idOf.apply(dto);
+            if (id == null) {
+                throw new IllegalArgumentException("Invalid " + name);
+            }
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * Partially update a book with a JSON merge patch.
+     * <p>
+     * Only the members of the patch are written, and only the changed columns are updated. The {@code authors} and
+     * {@code categories} members replace the relationships by id: the rows which differ are deleted from and inserted
+     * into the join tables, and only the authors and categories added are loaded.
+     *
+     * @param id    the id of the entity.
+     * @param patch the merge patch.
+     * @return the persisted entity, or empty if there is no book with the id.
+     * @throws IllegalArgumentException if the patch can not be applied, or refers to unknown authors or categories.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the patch has a version and the book no longer has it.
+     * @throws javax.validation.ConstraintViolationException if the patched book is not valid.
+     */
+    public Optional<BookDTO> partialUpdate(Long id, ObjectNode patch) {
+        log.debug("Request to partially update Book : {}, {}", id, patch);
+        return bookRepository
+            .findById(id)
+            .map(book -> {
+                // The cached id of the previous isbn is stale if the isbn changes
+                evictIsbnKey(book.getIsbnKey());
+                mergePatchService.apply(book, id, book.getVersion(), patch, "authors", "categories");
+                if (patch.has("authors")) {
+                    MergePatchService.replaceAll(book.getAuthors(), patch.get("authors"), Author::getId, authorRepository::findAllById, "author");
+                }
+                if (patch.has("categories")) {
+                    MergePatchService.replaceAll(
+                        book.getCategories(),
+                        patch.get("categories"),
+                        Category::getId,
+                        categoryRepository::findAllById,
+                        "category"
+                    );
+                }
+                return save(book);
+            })
+            .map(bookMapper::toDto);
+    }
+
+    /**
+     * Save books in bulk.
+     * <p>
+     * The books are persisted in the same flush, so their inserts and the inserts of their {@code book_author} and
+     * {@code book_category} rows are sent in JDBC batches, and their ids are allocated from the pooled sequence.
+     * Authors and categories must already be persisted.
+     *
+     * @param books the entities to save.
+     * @return the persisted entities.
+     */
+    public List<Book> saveAll(List<Book> books) {
+        log.debug("Request to save {} Books", books.size());
+        books.forEach(book -> evictIsbnKey(IsbnUtil.normalize(book.getIsbn())));
+        catalogVersion.increment();
+        List<Book> result = bookRepository.saveAll(books);
+        result.forEach(librarySearchService::indexBook);
+        return result;
     }
 
     /**
      * Get all the books with eager load of many-to-many relationships.
      *
+     * @param pageable the pagination information.
      * @return the list of entities.
      */
-    public Page<Book> findAllWithEagerRelationships(Pageable pageable) {
-        return bookRepository.findAllWithEagerRelationships(pageable);
+    @Transactional(readOnly = true)
+    public Page<BookDTO> findAllWithEagerRelationships(Pageable pageable) {
+        Page<Long> ids = bookRepository.findIdPage(null, pageable);
+        List<BookDTO> content = bookMapper.toDto(bookRepository.findAllWithEagerRelationshipsByIdIn(ids.getContent()));
+        return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
     }
 
     /**
      * Get one book by id.
+     * <p>
+     * The book and its relationships are loaded by id, not with a join fetch query, so they are read from the
+     * second-level cache when present. The relationships are loaded while the book is mapped, inside the transaction.
      *
      * @param id the id of the entity.
      * @return the entity.
      */
     @Transactional(readOnly = true)
-    public Optional<Book> findOne(Long id) {
+    public Optional<BookDTO> findOne(Long id) {
         log.debug("Request to get Book : {}", id);
-        return bookRepository.findOneWithEagerRelationships(id);
+        return bookRepository.findById(id).map(bookMapper::toDto);
+    }
+
+    /**
+     * Get one book by id, at least as recent as the given state.
+     * <p>
+     * The book and its relationships are loaded like {@link #findOne(Long)}, but the second-level cache is local to
+     * this instance, and another one may have written them since they were cached: when they do not match the state,
+     * which is read from the database, they are refreshed from it, so the book is never older than its validators.
+     *
+     * @param id    the id of the entity.
+     * @param state the state of the entity, as read by {@link #findState(Long)}.
+     * @return the entity.
+     */
+    @Transactional(readOnly = true)
+    public Optional<BookDTO> findOne(Long id, EntityState state) {
+        log.debug("Request to get Book : {} in state {}", id, state.getETag());
+        return bookRepository
+            .findById(id)
+            .map(book -> {
+                if (!state.getETag().equals(stateOf(book).getETag())) {
+                    // The categories are refreshed with the book, the authors are not
+                    entityManager.refresh(book);
+                    book.getAuthors().forEach(entityManager::refresh);
+                }
+                return bookMapper.toDto(book);
+            });
+    }
+
+    private static EntityState stateOf(Book book) {
+        return new EntityState(
+            book.getId(),
+            book.getVersion(),
+            book.getLastModifiedDate(),
+            latest(book.getAuthors(), Author::getLastModifiedDate),
+            latest(book.getCategories(), Category::getLastModifiedDate)
+        );
+    }
+
+    private static <T> Instant latest(Collection<T> entities, Function<T, Instant> lastModifiedDate) {
+        return entities.stream().map(lastModifiedDate).filter(Objects::nonNull).max(Instant::compareTo).orElse(null);
+    }
+
+    /**
+     * Get the state of one book, which identifies its representation, without loading it.
+     *
+     * @param id the id of the entity.
+     * @return the state of the entity.
+     */
+    @Transactional(readOnly = true)
+    public Optional<EntityState> findState(Long id) {
+        log.debug("Request to get the state of Book : {}", id);
+        return bookRepository.findStateById(id);
     }
 
     /**
      * Get one book by isbn.
+     * <p>
+     * The isbn is resolved to an id through the cached canonical isbn lookup, then the book is loaded by id. Books
+     * saved before the canonical isbn existed are found by their isbn stripped of its separators, until the
+     * {@link IsbnKeyBackfillService} has given them one.
      *
      * @param isbn the isbn of the entity.
      * @return the entity.
      */
     @Transactional(readOnly = true)
-    public Optional<Book> findOneByIsbn(String isbn) {
+    public Optional<BookDTO> findOneByIsbn(String isbn) {
         log.debug("Request to get Book : {}", isbn);
-        return bookRepository.findOneByIsbnWithEagerRelationships(isbn);
+        String isbnKey = IsbnUtil.normalize(isbn);
+        Optional<Long> id = bookRepository.findIdByIsbnKey(isbnKey);
+        if (id.isPresent()) {
+            Optional<Book> book = bookRepository.findById(id.get()).filter(found -> isbnKey.equals(found.getIsbnKey()));
+            if (book.isPresent()) {
+                return book.map(bookMapper::toDto);
+            }
+            // The cached id is stale, the book was deleted or its isbn changed
+            evictIsbnKey(isbnKey);
+            id = bookRepository.findIdByIsbnKey(isbnKey);
+            if (id.isPresent()) {
+                return bookRepository.findById(id.get()).map(bookMapper::toDto);
+            }
+        }
+        if (isbnKey == null || isbnKeyBackfillService.isCompleted()) {
+            return Optional.empty();
+        }
+        String compactIsbn = IsbnUtil.compact(isbn);
+        return bookRepository
+            .findAllWithoutIsbnKeyByCompactIsbnIn(new LinkedHashSet<>(Arrays.asList(compactIsbn, isbnKey)))
+            .stream()
+            .filter(found -> isbnKey.equals(IsbnUtil.normalize(found.getIsbn())))
+            .findFirst()
+            .map(bookMapper::toDto);
     }
 
     /**
@@ -89,6 +370,47 @@ public class BookService {
      */
     public void delete(Long id) {
         log.debug("Request to delete Book : {}", id);
+        catalogVersion.increment();
+        bookRepository
+            .findWithCategoriesById(id)
+            .ifPresent(book -> {
+                evictIsbnKey(book.getIsbnKey());
+                // Categories are cascaded from the book
+                book.getCategories().forEach(category -> librarySearchService.removeCategory(category.getId()));
+            });
         bookRepository.deleteById(id);
+        librarySearchService.removeBook(id);
+    }
+
+    /**
+     * Delete the books with the given ids, for the bulk operations.
+     * <p>
+     * The books are loaded with their categories in one query and removed in the same flush, so their deletes, and
+     * those of their join table rows and categories, are sent in JDBC batches. The catalog version changes once.
+     *
+     * @param ids the ids of the entities.
+     * @return the ids of the books which existed, and were deleted.
+     */
+    Set<Long> deleteAll(Collection<Long> ids) {
+        log.debug("Request to delete {} Books", ids.size());
+        catalogVersion.increment();
+        List<Book> books = bookRepository.findAllWithCategoriesByIdIn(ids);
+        Set<Long> deleted = new HashSet<>();
+        for (Book book : books) {
+            evictIsbnKey(book.getIsbnKey());
+            // Categories are cascaded from the book
+            book.getCategories().forEach(category -> librarySearchService.removeCategory(category.getId()));
+            deleted.add(book.getId());
+        }
+        bookRepository.deleteAll(books);
+        deleted.forEach(librarySearchService::removeBook);
+        return deleted;
+    }
+
+    private void evictIsbnKey(String isbnKey) {
+        Cache cache = cacheManager.getCache(BookRepository.BOOK_ID_BY_ISBN_KEY_CACHE);
+        if (cache != null && isbnKey != null) {
+            cache.evict(isbnKey);
+        }
     }
 }
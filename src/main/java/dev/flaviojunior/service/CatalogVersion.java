@@ -0,0 +1,95 @@
+package dev.flaviojunior.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the book catalog, which changes whenever a book, an author or a category is written.
+ * <p>
+ * The version of {@link #get()} is kept by this instance, so a write costs no statement and no lock shared with the
+ * other instances. It changes right away, and once more when the writing transaction completes: a reader between the
+ * two still sees the data from before the commit, and its results are tied to a version which is then left behind.
+ * <p>
+ * The writes made through another instance are not seen by this version, so the catalog also has a staleness
+ * {@link #getWindow() window}, which changes every {@code application.cache.query-results.max-staleness-seconds}:
+ * what is derived from the catalog, the cached results and the tags of the lists, is tied to both, and is at most that
+ * old. The window is read once per HTTP request, so the tag of a list and the cached results it is made of come from
+ * the same window.
+ */
+@Service
+public class CatalogVersion {
+
+    private static final String WINDOW_ATTRIBUTE = CatalogVersion.class.getName() + ".window";
+
+    /**
+     * Start of this instance, so its tags differ from those of the other instances and of its previous runs.
+     */
+    private final String instance = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final long maxStalenessMillis;
+
+    private Clock clock = Clock.systemUTC();
+
+    public CatalogVersion(@Value("${application.cache.query-results.max-staleness-seconds:5}") long maxStalenessSeconds) {
+        this.maxStalenessMillis = Math.max(1, maxStalenessSeconds) * 1000;
+    }
+
+    /**
+     * @return the current version of this instance.
+     */
+    public long get() {
+        return version.get();
+    }
+
+    /**
+     * @return the current staleness window, as first read by the current request.
+     */
+    public long getWindow() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            return clock.millis() / maxStalenessMillis;
+        }
+        Long window = (Long) request.getAttribute(WINDOW_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (window == null) {
+            window = clock.millis() / maxStalenessMillis;
+            request.setAttribute(WINDOW_ATTRIBUTE, window, RequestAttributes.SCOPE_REQUEST);
+        }
+        return window;
+    }
+
+    /**
+     * @return the weak entity tag of the lists of the catalog, which changes with the version and the window.
+     */
+    public String getETag() {
+        return "W/\"" + instance + "-" + getWindow() + "-" + get() + "\"";
+    }
+
+    /**
+     * Change the version, and again once the current transaction completes.
+     */
+    public void increment() {
+        version.incrementAndGet();
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CatalogVersion.this);
+                    version.incrementAndGet();
+                }
+            }
+        );
+    }
+}
@@ -1,14 +1,24 @@
 package dev.flaviojunior.service;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.flaviojunior.domain.Book;
 import dev.flaviojunior.domain.Category;
 import dev.flaviojunior.repository.CategoryRepository;
+import dev.flaviojunior.repository.EntityState;
+import dev.flaviojunior.service.dto.CategoryDTO;
+import dev.flaviojunior.service.mapper.CategoryMapper;
+import org.hibernate.SessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
 import java.util.Optional;
 
 /**
@@ -22,19 +32,109 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final LibrarySearchService librarySearchService;
+
+    private final CatalogVersion catalogVersion;
+
+    private final MergePatchService mergePatchService;
+
+    private final CategoryMapper categoryMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public CategoryService(
+        CategoryRepository categoryRepository,
+        EntityManagerFactory entityManagerFactory,
+        LibrarySearchService librarySearchService,
+        CatalogVersion catalogVersion,
+        MergePatchService mergePatchService,
+        CategoryMapper categoryMapper
+    ) {
         this.categoryRepository = categoryRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.librarySearchService = librarySearchService;
+        this.catalogVersion = catalogVersion;
+        this.mergePatchService = mergePatchService;
+        this.categoryMapper = categoryMapper;
     }
 
     /**
      * Save a category.
      *
-     * @param category the entity to save.
+     * @param categoryDTO the entity to save.
      * @return the persisted entity.
      */
-    public Category save(Category category) {
-        log.debug("Request to save Category : {}", category);
-        return categoryRepository.save(category);
+    public CategoryDTO save(CategoryDTO categoryDTO) {
+        log.debug("Request to save Category : {}", categoryDTO);
+        return categoryMapper.toDto(save(categoryMapper.toEntity(categoryDTO)));
+    }
+
+    private Category save(Category category) {
+        // Books are returned with their categories
+        catalogVersion.increment();
+        Category result = categoryRepository.save(category);
+        librarySearchService.indexCategory(result);
+        return result;
+    }
+
+    /**
+     * Update a category, if it exists.
+     * <p>
+     * The update is conditional on the version the category was read with, which it must have. The stored category is loaded
+     * by id, from the second-level cache when present, and refreshed only if its version differs, in case the cache
+     * is older than the request. The category is then updated in place instead of merged, so its flush is a single update
+     * of the changed columns, conditional on the version.
+     *
+     * @param categoryDTO the entity to update.
+     * @return the persisted entity, or empty if there is no category with its id.
+     * @throws IllegalArgumentException if the category has no version.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the category was changed since it was read.
+     */
+    public Optional<CategoryDTO> update(CategoryDTO categoryDTO) {
+        log.debug("Request to update Category : {}", categoryDTO);
+        if (categoryDTO.getVersion() == null) {
+            throw new IllegalArgumentException("A category can only be updated from the version it was read with");
+        }
+        long version = categoryDTO.getVersion();
+        return categoryRepository
+            .findById(categoryDTO.getId())
+            .map(category -> {
+                if (category.getVersion() != version) {
+                    entityManager.refresh(category);
+                }
+                if (category.getVersion() != version) {
+                    throw new ObjectOptimisticLockingFailureException(Category.class, category.getId());
+                }
+                categoryMapper.updateEntity(category, categoryDTO);
+                return categoryMapper.toDto(save(category));
+            });
+    }
+
+    /**
+     * Partially update a category with a JSON merge patch.
+     * <p>
+     * Only the members of the patch are written, and only the changed columns are updated.
+     *
+     * @param id    the id of the entity.
+     * @param patch the merge patch.
+     * @return the persisted entity, or empty if there is no category with the id.
+     * @throws IllegalArgumentException if the patch can not be applied.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the patch has a version and the category no longer has it.
+     * @throws javax.validation.ConstraintViolationException if the patched category is not valid.
+     */
+    public Optional<CategoryDTO> partialUpdate(Long id, ObjectNode patch) {
+        log.debug("Request to partially update Category : {}, {}", id, patch);
+        return categoryRepository
+            .findById(id)
+            .map(category -> {
+                // The books are on the owning side, and are not patched through the category
+                mergePatchService.apply(category, id, category.getVersion(), patch, "books");
+                return save(category);
+            })
+            .map(categoryMapper::toDto);
     }
 
     /**
@@ -44,9 +144,9 @@ public class CategoryService {
      * @return the list of entities.
      */
     @Transactional(readOnly = true)
-    public Page<Category> findAll(Pageable pageable) {
+    public Page<CategoryDTO> findAll(Pageable pageable) {
         log.debug("Request to get all Categories");
-        return categoryRepository.findAll(pageable);
+        return categoryRepository.findAll(pageable).map(categoryMapper::toDto);
     }
 
     /**
@@ -56,18 +156,57 @@ public class CategoryService {
      * @return the entity.
      */
     @Transactional(readOnly = true)
-    public Optional<Category> findOne(Long id) {
+    public Optional<CategoryDTO> findOne(Long id) {
         log.debug("Request to get Category : {}", id);
-        return categoryRepository.findById(id);
+        return categoryRepository.findById(id).map(categoryMapper::toDto);
+    }
+
+    /**
+     * Get one category by id, at least as recent as the given state: the category cached by this instance is refreshed from
+     * the database when another instance has written it since.
+     *
+     * @param id    the id of the entity.
+     * @param state the state of the entity, as read by {@link #findState(Long)}.
+     * @return the entity.
+     */
+    @Transactional(readOnly = true)
+    public Optional<CategoryDTO> findOne(Long id, EntityState state) {
+        log.debug("Request to get Category : {} in state {}", id, state.getETag());
+        return categoryRepository
+            .findById(id)
+            .map(category -> {
+                EntityState loaded = new EntityState(category.getId(), category.getVersion(), category.getLastModifiedDate());
+                if (!state.getETag().equals(loaded.getETag())) {
+                    entityManager.refresh(category);
+                }
+                return categoryMapper.toDto(category);
+            });
+    }
+
+    /**
+     * Get the state of one category, which identifies its representation, without loading it.
+     *
+     * @param id the id of the entity.
+     * @return the state of the entity.
+     */
+    @Transactional(readOnly = true)
+    public Optional<EntityState> findState(Long id) {
+        log.debug("Request to get the state of Category : {}", id);
+        return categoryRepository.findStateById(id);
     }
 
     /**
      * Delete the category by id.
+     * <p>
+     * The category is removed from the inverse side of {@code Book.categories}, so the cached categories of the books are evicted.
      *
      * @param id the id of the entity.
      */
     public void delete(Long id) {
         log.debug("Request to delete Category : {}", id);
+        catalogVersion.increment();
         categoryRepository.deleteById(id);
+        librarySearchService.removeCategory(id);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictCollectionData(Book.class.getName() + ".categories");
     }
 }
@@ -0,0 +1,114 @@
+package dev.flaviojunior.service;
+
+import dev.flaviojunior.common.util.IsbnUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Service filling the canonical isbn of the books saved before it existed, so they are found by any spelling of their
+ * isbn.
+ * <p>
+ * The books are read in chunks, in id order, and each chunk is updated with a JDBC batch in its own transaction. The
+ * canonical isbn is computed by {@link IsbnUtil}, which the database can not do. A book whose canonical isbn is taken
+ * by another book is left without one, and logged.
+ */
+@Service
+public class IsbnKeyBackfillService {
+
+    private final Logger log = LoggerFactory.getLogger(IsbnKeyBackfillService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    private volatile boolean completed;
+
+    public IsbnKeyBackfillService(
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        @Value("${application.isbn-key-backfill.chunk-size:1000}") int chunkSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return whether every book has been given its canonical isbn, so none has to be looked up by its raw isbn.
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Fill the canonical isbn of the books which have none.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long start = System.currentTimeMillis();
+        long updated = 0;
+        long lastId = 0;
+        try {
+            while (true) {
+                List<Object[]> chunk = jdbcTemplate.query(
+                    "select id, isbn from book where isbn_key is null and id > ? order by id limit ?",
+                    (rs, rowNum) -> new Object[] { rs.getLong("id"), IsbnUtil.normalize(rs.getString("isbn")) },
+                    lastId,
+                    chunkSize
+                );
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                lastId = (Long) chunk.get(chunk.size() - 1)[0];
+                // A book without isbn has no canonical isbn either
+                chunk.removeIf(row -> row[1] == null);
+                if (!chunk.isEmpty()) {
+                    updated += update(chunk);
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not fill the canonical isbn of the books after id {} : {}", lastId, e.getMessage());
+            return;
+        }
+        completed = true;
+        if (updated > 0) {
+            log.info("Filled the canonical isbn of {} books in {} ms", updated, System.currentTimeMillis() - start);
+        }
+    }
+
+    private long update(List<Object[]> chunk) {
+        String sql = "update book set isbn_key = ? where id = ? and isbn_key is null";
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, chunk, chunk.size(), (ps, row) -> {
+                ps.setString(1, (String) row[1]);
+                ps.setLong(2, (Long) row[0]);
+            }));
+            return chunk.size();
+        } catch (DataIntegrityViolationException e) {
+            // Two books share a canonical isbn: update them one by one, to leave only the duplicates behind
+            long updated = 0;
+            for (Object[] row : chunk) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(sql, row[1], row[0]));
+                    updated++;
+                } catch (DataIntegrityViolationException duplicate) {
+                    log.warn("Book {} is left without a canonical isbn, {} belongs to another book", row[0], row[1]);
+                }
+            }
+            return updated;
+        }
+    }
+}
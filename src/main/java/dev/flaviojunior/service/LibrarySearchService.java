@@ -0,0 +1,242 @@
+package dev.flaviojunior.service;
+
+import dev.flaviojunior.common.service.InvertedIndex;
+import dev.flaviojunior.domain.Author;
+import dev.flaviojunior.domain.Book;
+import dev.flaviojunior.domain.Category;
+import dev.flaviojunior.service.dto.LibrarySearchResultDTO;
+import dev.flaviojunior.service.dto.SearchHitDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Service for the autocomplete search of the library.
+ * <p>
+ * Book titles, author names and category names are kept in {@link InvertedIndex}es, loaded at startup and then updated
+ * by the services once their transaction commits, so a search never reaches the database.
+ * <p>
+ * The indexes are loaded into new instances, which replace the current ones all at once when they are complete, so the
+ * searches meanwhile keep using the current indexes. The updates committed during a load are applied to the current
+ * indexes and kept, then applied again to the loaded ones before they replace them, as the load may have read the rows
+ * from before those updates.
+ */
+@Service
+public class LibrarySearchService {
+
+    private final Logger log = LoggerFactory.getLogger(LibrarySearchService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Object updateLock = new Object();
+
+    private volatile Indexes indexes = new Indexes();
+
+    /**
+     * Updates made since the current load started, {@code null} when no load is running.
+     */
+    private List<Consumer<Indexes>> updatesDuringLoad;
+
+    public LibrarySearchService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Load the indexes from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadIndexes() {
+        long start = System.currentTimeMillis();
+        synchronized (updateLock) {
+            updatesDuringLoad = new ArrayList<>();
+        }
+        Indexes loaded = new Indexes();
+        try {
+            jdbcTemplate.query("select id, title from book", rs -> {
+                loaded.books.put(rs.getLong("id"), rs.getString("title"));
+            });
+            jdbcTemplate.query("select id, first_name, last_name from author", rs -> {
+                loaded.authors.put(rs.getLong("id"), authorLabel(rs.getString("first_name"), rs.getString("last_name")));
+            });
+            jdbcTemplate.query("select id, name from category", rs -> {
+                loaded.categories.put(rs.getLong("id"), rs.getString("name"));
+            });
+            synchronized (updateLock) {
+                updatesDuringLoad.forEach(update -> update.accept(loaded));
+                indexes = loaded;
+            }
+        } finally {
+            synchronized (updateLock) {
+                updatesDuringLoad = null;
+            }
+        }
+        log.info(
+            "Loaded the search indexes with {} books, {} authors and {} categories in {} ms",
+            loaded.books.size(),
+            loaded.authors.size(),
+            loaded.categories.size(),
+            System.currentTimeMillis() - start
+        );
+    }
+
+    /**
+     * Search the books, authors and categories with a word starting with each word of the query.
+     *
+     * @param query the words to look for.
+     * @param limit the maximum number of results of each kind.
+     * @return the books, authors and categories found.
+     */
+    public LibrarySearchResultDTO search(String query, int limit) {
+        log.debug("Request to search the library : {}", query);
+        Indexes current = indexes;
+        LibrarySearchResultDTO result = new LibrarySearchResultDTO();
+        result.setBooks(toHits(current.books.search(query, limit)));
+        result.setAuthors(toHits(current.authors.search(query, limit)));
+        result.setCategories(toHits(current.categories.search(query, limit)));
+        return result;
+    }
+
+    /**
+     * Index a book, with its categories, once the current transaction commits.
+     *
+     * @param book the saved book.
+     */
+    public void indexBook(Book book) {
+        Long id = book.getId();
+        String title = book.getTitle();
+        afterCommit(current -> current.books.put(id, title));
+        // Categories are cascaded from the book
+        book.getCategories().forEach(this::indexCategory);
+    }
+
+    /**
+     * Index a book once the current transaction commits.
+     *
+     * @param id    the id of the book.
+     * @param title the title of the book.
+     */
+    public void indexBook(Long id, String title) {
+        afterCommit(current -> current.books.put(id, title));
+    }
+
+    /**
+     * Remove a book once the current transaction commits.
+     *
+     * @param id the id of the book.
+     */
+    public void removeBook(Long id) {
+        afterCommit(current -> current.books.remove(id));
+    }
+
+    /**
+     * Index an author once the current transaction commits.
+     *
+     * @param author the saved author.
+     */
+    public void indexAuthor(Author author) {
+        indexAuthor(author.getId(), author.getFirstName(), author.getLastName());
+    }
+
+    /**
+     * Index an author once the current transaction commits.
+     *
+     * @param id        the id of the author.
+     * @param firstName the first name of the author.
+     * @param lastName  the last name of the author.
+     */
+    public void indexAuthor(Long id, String firstName, String lastName) {
+        String label = authorLabel(firstName, lastName);
+        afterCommit(current -> current.authors.put(id, label));
+    }
+
+    /**
+     * Remove an author once the current transaction commits.
+     *
+     * @param id the id of the author.
+     */
+    public void removeAuthor(Long id) {
+        afterCommit(current -> current.authors.remove(id));
+    }
+
+    /**
+     * Index a category once the current transaction commits.
+     *
+     * @param category the saved category.
+     */
+    public void indexCategory(Category category) {
+        indexCategory(category.getId(), category.getName());
+    }
+
+    /**
+     * Index a category once the current transaction commits.
+     *
+     * @param id   the id of the category.
+     * @param name the name of the category.
+     */
+    public void indexCategory(Long id, String name) {
+        afterCommit(current -> current.categories.put(id, name));
+    }
+
+    /**
+     * Remove a category once the current transaction commits.
+     *
+     * @param id the id of the category.
+     */
+    public void removeCategory(Long id) {
+        afterCommit(current -> current.categories.remove(id));
+    }
+
+    private void afterCommit(Consumer<Indexes> update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(update);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(update);
+                }
+            }
+        );
+    }
+
+    private void apply(Consumer<Indexes> update) {
+        synchronized (updateLock) {
+            update.accept(indexes);
+            if (updatesDuringLoad != null) {
+                updatesDuringLoad.add(update);
+            }
+        }
+    }
+
+    private static String authorLabel(String firstName, String lastName) {
+        return firstName + " " + lastName;
+    }
+
+    private static List<SearchHitDTO> toHits(List<InvertedIndex.Hit> hits) {
+        return hits.stream().map(hit -> new SearchHitDTO(hit.getId(), hit.getLabel())).collect(Collectors.toList());
+    }
+
+    /**
+     * Indexes of the books, authors and categories, replaced together.
+     */
+    private static final class Indexes {
+
+        private final InvertedIndex books = new InvertedIndex();
+
+        private final InvertedIndex authors = new InvertedIndex();
+
+        private final InvertedIndex categories = new InvertedIndex();
+    }
+}
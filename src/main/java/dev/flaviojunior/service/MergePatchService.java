@@ -0,0 +1,157 @@
+package dev.flaviojunior.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Service applying JSON merge patches (RFC 7396) to managed entities.
+ * <p>
+ * Only the members of a patch are written to the entity, a {@code null} member clearing the field, so with dynamic
+ * update SQL only the changed columns are updated. Relationships are patched separately with
+ * {@link #replaceAll(Set, JsonNode, Function, Function, String)}, which changes the managed set in place: Hibernate
+ * then deletes and inserts only the join table rows which differ, instead of rewriting them all.
+ */
+@Service
+public class MergePatchService {
+
+    /**
+     * Members which are never written from a patch: the id identifies the entity and the version is checked instead.
+     */
+    private static final List<String> RESERVED_MEMBERS = Arrays.asList("id", "version");
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    public MergePatchService(ObjectMapper objectMapper, Validator validator) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    /**
+     * Apply a patch to an entity, and validate the result.
+     *
+     * @param <T>      the type of the entity.
+     * @param entity   the managed entity.
+     * @param id       the id of the entity.
+     * @param version  the version of the entity.
+     * @param patch    the merge patch.
+     * @param excluded the members patched separately, which are not written to the entity.
+     * @throws IllegalArgumentException                if a member of the patch can not be read.
+     * @throws ObjectOptimisticLockingFailureException if the patch has a version and the entity no longer has it.
+     * @throws ConstraintViolationException            if the patched entity is not valid.
+     */
+    public <T> void apply(T entity, Long id, long version, ObjectNode patch, String... excluded) {
+        JsonNode expectedVersion = patch.get("version");
+        if (expectedVersion != null && !expectedVersion.isNull() && expectedVersion.asLong() != version) {
+            throw new ObjectOptimisticLockingFailureException(entity.getClass(), id);
+        }
+        ObjectNode members = patch.deepCopy();
+        members.remove(RESERVED_MEMBERS);
+        members.remove(Arrays.asList(excluded));
+        try {
+            objectMapper.readerForUpdating(entity).readValue(members);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid patch: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid patch", e);
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(entity);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+    }
+
+    /**
+     * Replace the elements of a relationship by the entities with the given ids. Elements which stay are left in
+     * place, and only the entities added are loaded.
+     *
+     * @param <E>      the type of the elements.
+     * @param elements the managed set of the relationship.
+     * @param member   the member of the patch: an array of ids, or of objects with an {@code id}; {@code null} clears
+     *                 the relationship.
+     * @param idOf     the id of an element.
+     * @param loader   loads the entities with the given ids.
+     * @param name     the name of the elements, for the error messages.
+     * @throws IllegalArgumentException if the member is not an array of ids, or if an id is unknown.
+     */
+    public static <E> void replaceAll(
+        Set<E> elements,
+        JsonNode member,
+        Function<E, Long> idOf,
+        Function<Collection<Long>, List<E>> loader,
+        String name
+    ) {
+        replaceAll(elements, ids(member, name), idOf, loader, name);
+    }
+
+    /**
+     * Replace the elements of a relationship by the entities with the given ids. Elements which stay are left in
+     * place, and only the entities added are loaded.
+     *
+     * @param <E>      the type of the elements.
+     * @param elements the managed set of the relationship.
+     * @param ids      the ids of the entities of the relationship.
+     * @param idOf     the id of an element.
+     * @param loader   loads the entities with the given ids.
+     * @param name     the name of the elements, for the error messages.
+     * @throws IllegalArgumentException if an id is unknown.
+     */
+    public static <E> void replaceAll(
+        Set<E> elements,
+        Collection<Long> ids,
+        Function<E, Long> idOf,
+        Function<Collection<Long>, List<E>> loader,
+        String name
+    ) {
+        Set<Long> added = new LinkedHashSet<>(ids);
+        for (Iterator<E> iterator = elements.iterator(); iterator.hasNext();) {
+            // What is left in added is not in the relationship yet
+            if (!added.remove(idOf.apply(iterator.next()))) {
+                iterator.remove();
+            }
+        }
+        if (added.isEmpty()) {
+            return;
+        }
+        List<E> entities = loader.apply(added);
+        if (entities.size() != added.size()) {
+            throw new IllegalArgumentException("Unknown " + name);
+        }
+        elements.addAll(entities);
+    }
+
+    private static Set<Long> ids(JsonNode member, String name) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if (member == null || member.isNull()) {
+            return ids;
+        }
+        if (!member.isArray()) {
+            throw new IllegalArgumentException("Invalid " + name);
+        }
+        for (JsonNode item : member) {
+            JsonNode id = item.isObject() ? item.get("id") : item;
+            if (id == null || !id.isIntegralNumber()) {
+                throw new IllegalArgumentException("Invalid " + name);
+            }
+            ids.add(id.asLong());
+        }
+        return ids;
+    }
+}
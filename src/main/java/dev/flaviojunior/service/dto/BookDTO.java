@@ -0,0 +1,145 @@
+package dev.flaviojunior.service.dto;
+
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A DTO for the {@link dev.flaviojunior.domain.Book} entity.
+ */
+public class BookDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    @NotNull
+    private String title;
+
+    @NotNull
+    private String isbn;
+
+    private String imagePath;
+
+    private String publisher;
+
+    private LocalDate dateOfPublication;
+
+    private Long version;
+
+    private Set<AuthorDTO> authors = new HashSet<>();
+
+    private Set<CategoryDTO> categories = new HashSet<>();
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+
+    public String getImagePath() {
+        return imagePath;
+    }
+
+    public void setImagePath(String imagePath) {
+        this.imagePath = imagePath;
+    }
+
+    public String getPublisher() {
+        return publisher;
+    }
+
+    public void setPublisher(String publisher) {
+        this.publisher = publisher;
+    }
+
+    public LocalDate getDateOfPublication() {
+        return dateOfPublication;
+    }
+
+    public void setDateOfPublication(LocalDate dateOfPublication) {
+        this.dateOfPublication = dateOfPublication;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Set<AuthorDTO> getAuthors() {
+        return authors;
+    }
+
+    public void setAuthors(Set<AuthorDTO> authors) {
+        this.authors = authors;
+    }
+
+    public Set<CategoryDTO> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(Set<CategoryDTO> categories) {
+        this.categories = categories;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BookDTO)) {
+            return false;
+        }
+
+        BookDTO bookDTO = (BookDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, bookDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BookDTO{" +
+            "id=" + getId() +
+            ", title='" + getTitle() + "'" +
+            ", isbn='" + getIsbn() + "'" +
+            ", imagePath='" + getImagePath() + "'" +
+            ", publisher='" + getPublisher() + "'" +
+            ", dateOfPublication='" + getDateOfPublication() + "'" +
+            ", version=" + getVersion() +
+            ", authors=" + getAuthors() +
+            ", categories=" + getCategories() +
+            "}";
+    }
+}
@@ -0,0 +1,92 @@
+package dev.flaviojunior.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * Summary of a books CSV import.
+ */
+public class BookImportResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long rowsRead;
+
+    private long booksImported;
+
+    private long rowsSkipped;
+
+    private long authorsCreated;
+
+    private long categoriesCreated;
+
+    private long elapsedMillis;
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public long getBooksImported() {
+        return booksImported;
+    }
+
+    public void setBooksImported(long booksImported) {
+        this.booksImported = booksImported;
+    }
+
+    public long getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    public void setRowsSkipped(long rowsSkipped) {
+        this.rowsSkipped = rowsSkipped;
+    }
+
+    public long getAuthorsCreated() {
+        return authorsCreated;
+    }
+
+    public void setAuthorsCreated(long authorsCreated) {
+        this.authorsCreated = authorsCreated;
+    }
+
+    public long getCategoriesCreated() {
+        return categoriesCreated;
+    }
+
+    public void setCategoriesCreated(long categoriesCreated) {
+        this.categoriesCreated = categoriesCreated;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return the number of rows read per second.
+     */
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? rowsRead : rowsRead * 1000 / elapsedMillis;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BookImportResultDTO{" +
+            "rowsRead=" + getRowsRead() +
+            ", booksImported=" + getBooksImported() +
+            ", rowsSkipped=" + getRowsSkipped() +
+            ", authorsCreated=" + getAuthorsCreated() +
+            ", categoriesCreated=" + getCategoriesCreated() +
+            ", elapsedMillis=" + getElapsedMillis() +
+            ", rowsPerSecond=" + getRowsPerSecond() +
+            "}";
+    }
+}
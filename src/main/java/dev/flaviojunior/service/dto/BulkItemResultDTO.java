@@ -0,0 +1,85 @@
+package dev.flaviojunior.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * Outcome of one item of a bulk request.
+ */
+public class BulkItemResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DELETED,
+        INVALID,
+        NOT_FOUND,
+        CONFLICT,
+        FAILED,
+    }
+
+    private int index;
+
+    private Long id;
+
+    private Status status;
+
+    private String message;
+
+    public BulkItemResultDTO() {
+    }
+
+    public BulkItemResultDTO(int index, Long id, Status status, String message) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.message = message;
+    }
+
+    /**
+     * @return the position of the item in the request.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkItemResultDTO{" +
+            "index=" + getIndex() +
+            ", id=" + getId() +
+            ", status='" + getStatus() + "'" +
+            ", message='" + getMessage() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,53 @@
+package dev.flaviojunior.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Books, authors and categories matching a library search.
+ */
+public class LibrarySearchResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<SearchHitDTO> books = new ArrayList<>();
+
+    private List<SearchHitDTO> authors = new ArrayList<>();
+
+    private List<SearchHitDTO> categories = new ArrayList<>();
+
+    public List<SearchHitDTO> getBooks() {
+        return books;
+    }
+
+    public void setBooks(List<SearchHitDTO> books) {
+        this.books = books;
+    }
+
+    public List<SearchHitDTO> getAuthors() {
+        return authors;
+    }
+
+    public void setAuthors(List<SearchHitDTO> authors) {
+        this.authors = authors;
+    }
+
+    public List<SearchHitDTO> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<SearchHitDTO> categories) {
+        this.categories = categories;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "LibrarySearchResultDTO{" +
+            "books=" + getBooks() +
+            ", authors=" + getAuthors() +
+            ", categories=" + getCategories() +
+            "}";
+    }
+}
@@ -0,0 +1,48 @@
+package dev.flaviojunior.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * An entity found by a search, with the text it was found by.
+ */
+public class SearchHitDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String label;
+
+    public SearchHitDTO() {
+    }
+
+    public SearchHitDTO(Long id, String label) {
+        this.id = id;
+        this.label = label;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SearchHitDTO{" +
+            "id=" + getId() +
+            ", label='" + getLabel() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,34 @@
+package dev.flaviojunior.service.mapper;
+
+import dev.flaviojunior.domain.Author;
+import dev.flaviojunior.service.dto.AuthorDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+/**
+ * Mapper for the entity {@link Author} and its DTO {@link AuthorDTO}.
+ * <p>
+ * The books of an author are on the inverse side, and are neither read nor written through the DTO.
+ */
+@Mapper(componentModel = "spring")
+public interface AuthorMapper extends EntityMapper<AuthorDTO, Author> {
+    @Override
+    @Mapping(target = "books", ignore = true)
+    @Mapping(target = "removeBook", ignore = true)
+    @Mapping(target = "lastModifiedDate", ignore = true)
+    Author toEntity(AuthorDTO authorDTO);
+
+    /**
+     * Copy the fields of a DTO onto a managed author, leaving its id, its version and its books.
+     *
+     * @param author    the managed entity.
+     * @param authorDTO the DTO.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "books", ignore = true)
+    @Mapping(target = "removeBook", ignore = true)
+    @Mapping(target = "lastModifiedDate", ignore = true)
+    void updateEntity(@MappingTarget Author author, AuthorDTO authorDTO);
+}
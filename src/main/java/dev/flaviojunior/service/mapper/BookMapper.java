@@ -0,0 +1,38 @@
+package dev.flaviojunior.service.mapper;
+
+import dev.flaviojunior.domain.Book;
+import dev.flaviojunior.service.dto.BookDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+/**
+ * Mapper for the entity {@link Book} and its DTO {@link BookDTO}.
+ * <p>
+ * The authors and categories are mapped without their books, so mapping a book never walks further than its own
+ * relationships.
+ */
+@Mapper(componentModel = "spring", uses = { AuthorMapper.class, CategoryMapper.class })
+public interface BookMapper extends EntityMapper<BookDTO, Book> {
+    @Override
+    @Mapping(target = "removeAuthor", ignore = true)
+    @Mapping(target = "removeCategory", ignore = true)
+    @Mapping(target = "lastModifiedDate", ignore = true)
+    Book toEntity(BookDTO bookDTO);
+
+    /**
+     * Copy the fields of a DTO onto a managed book, leaving its id, its version and its relationships, which the
+     * service updates itself.
+     *
+     * @param book    the managed entity.
+     * @param bookDTO the DTO.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "authors", ignore = true)
+    @Mapping(target = "removeAuthor", ignore = true)
+    @Mapping(target = "categories", ignore = true)
+    @Mapping(target = "removeCategory", ignore = true)
+    @Mapping(target = "lastModifiedDate", ignore = true)
+    void updateEntity(@MappingTarget Book book, BookDTO bookDTO);
+}
@@ -0,0 +1,34 @@
+package dev.flaviojunior.service.mapper;
+
+import dev.flaviojunior.domain.Category;
+import dev.flaviojunior.service.dto.CategoryDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+/**
+ * Mapper for the entity {@link Category} and its DTO {@link CategoryDTO}.
+ * <p>
+ * The books of a category are on the inverse side, and are neither read nor written through the DTO.
+ */
+@Mapper(componentModel = "spring")
+public interface CategoryMapper extends EntityMapper<CategoryDTO, Category> {
+    @Override
+    @Mapping(target = "books", ignore = true)
+    @Mapping(target = "removeBook", ignore = true)
+    @Mapping(target = "lastModifiedDate", ignore = true)
+    Category toEntity(CategoryDTO categoryDTO);
+
+    /**
+     * Copy the fields of a DTO onto a managed category, leaving its id, its version and its books.
+     *
+     * @param category    the managed entity.
+     * @param categoryDTO the DTO.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "books", ignore = true)
+    @Mapping(target = "removeBook", ignore = true)
+    @Mapping(target = "lastModifiedDate", ignore = true)
+    void updateEntity(@MappingTarget Category category, CategoryDTO categoryDTO);
+}
@@ -1,20 +1,29 @@
 package dev.flaviojunior.web.rest;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import dev.flaviojunior.common.web.rest.errors.BadRequestAlertException;
+import dev.flaviojunior.common.web.rest.errors.PreconditionRequiredException;
 import dev.flaviojunior.common.web.util.HeaderUtil;
 import dev.flaviojunior.common.web.util.PaginationUtil;
 import dev.flaviojunior.common.web.util.ResponseUtil;
 import dev.flaviojunior.domain.Author;
-import dev.flaviojunior.repository.AuthorRepository;
+import dev.flaviojunior.repository.EntityState;
 import dev.flaviojunior.service.AuthorService;
+import dev.flaviojunior.service.CatalogVersion;
+import dev.flaviojunior.service.dto.AuthorDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.validation.Valid;
@@ -23,6 +32,7 @@ import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 /**
  * REST controller for managing {@link Author}.
@@ -40,27 +50,27 @@ public class AuthorResource {
 
     private final AuthorService authorService;
 
-    private final AuthorRepository authorRepository;
+    private final CatalogVersion catalogVersion;
 
-    public AuthorResource(AuthorService authorService, AuthorRepository authorRepository) {
+    public AuthorResource(AuthorService authorService, CatalogVersion catalogVersion) {
         this.authorService = authorService;
-        this.authorRepository = authorRepository;
+        this.catalogVersion = catalogVersion;
     }
 
     /**
      * {@code POST  /authors} : Creates a new author.
      *
-     * @param author A author to create.
+     * @param authorDTO A author to create.
      * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new author, or with status {@code 400 (Bad Request)} if the author has already an ID.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("/authors")
-    public ResponseEntity<Author> createAuthor(@Valid @RequestBody Author author) throws URISyntaxException {
-        log.debug("REST request to save Author : {}", author);
-        if (author.getId() != null) {
+    public ResponseEntity<AuthorDTO> createAuthor(@Valid @RequestBody AuthorDTO authorDTO) throws URISyntaxException {
+        log.debug("REST request to save Author : {}", authorDTO);
+        if (authorDTO.getId() != null) {
             throw new BadRequestAlertException("A new author cannot already have an ID", ENTITY_NAME);
         }
-        Author result = authorService.save(author);
+        AuthorDTO result = authorService.save(authorDTO);
         return ResponseEntity
                 .created(new URI("/api/authors/" + result.getId()))
                 .headers(HeaderUtil.createEntityCreationAlert(applicationName, ENTITY_NAME, result.getId().toString()))
@@ -70,62 +80,135 @@ public class AuthorResource {
     /**
      * {@code PUT  /authors/:id} : Updates an existing author.
      *
-     * @param id     the id of the author to save.
-     * @param author the author to update.
+     * @param id        the id of the author to save.
+     * @param authorDTO the author to update.
+     * @param request   the current request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated author,
      * or with status {@code 400 (Bad Request)} if the author is not valid,
+     * or with status {@code 409 (Conflict)} if the author was changed since its version or its {@code If-Match} tag,
+     * or with status {@code 428 (Precondition Required)} if the author has no version and there is no {@code If-Match} tag,
      * or with status {@code 500 (Internal Server Error)} if the author couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/authors/{id}")
-    public ResponseEntity<Author> updateAuthor(
+    public ResponseEntity<AuthorDTO> updateAuthor(
             @PathVariable(value = "id", required = false) final Long id,
-            @Valid @RequestBody Author author
+            @Valid @RequestBody AuthorDTO authorDTO,
+            WebRequest request
     ) throws URISyntaxException {
-        log.debug("REST request to update Author : {}, {}", id, author);
-        if (author.getId() == null) {
+        log.debug("REST request to update Author : {}, {}", id, authorDTO);
+        if (authorDTO.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME);
         }
-        if (!Objects.equals(id, author.getId())) {
+        if (!Objects.equals(id, authorDTO.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME);
         }
 
-        if (!authorRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME);
+        OptionalLong matchedVersion = checkIfMatch(request, id);
+        if (matchedVersion.isPresent()) {
+            // The update is conditional on the version which matched
+            authorDTO.setVersion(matchedVersion.getAsLong());
+        } else if (authorDTO.getVersion() == null) {
+            throw new PreconditionRequiredException("The author must have its version, or the request an If-Match header", ENTITY_NAME);
         }
 
-        Author result = authorService.save(author);
+        AuthorDTO result = authorService.update(authorDTO).orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME));
         return ResponseEntity
                 .ok()
-                .headers(HeaderUtil.createEntityUpdateAlert(applicationName, ENTITY_NAME, author.getId().toString()))
+                .headers(HeaderUtil.createEntityUpdateAlert(applicationName, ENTITY_NAME, authorDTO.getId().toString()))
                 .body(result);
     }
 
+    /**
+     * {@code PATCH  /authors/:id} : Partial updates given fields of an existing author, as a JSON merge patch: a
+     * {@code null} field is cleared, and a missing one is left unchanged.
+     *
+     * @param id      the id of the author to save.
+     * @param patch   the fields of the author to update.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated author,
+     * or with status {@code 400 (Bad Request)} if the author is not found or the patch is not valid,
+     * or with status {@code 409 (Conflict)} if the author was changed since its version or its {@code If-Match} tag.
+     */
+    @PatchMapping(value = "/authors/{id}", consumes = { "application/merge-patch+json", "application/json" })
+    public ResponseEntity<AuthorDTO> partialUpdateAuthor(
+            @PathVariable(value = "id", required = false) final Long id,
+            @RequestBody ObjectNode patch,
+            WebRequest request
+    ) {
+        log.debug("REST request to partial update Author : {}, {}", id, patch);
+        JsonNode patchId = patch.get("id");
+        if (patchId != null && !patchId.isNull() && !Objects.equals(id, patchId.asLong())) {
+            throw new BadRequestAlertException("Invalid ID", ENTITY_NAME);
+        }
+        OptionalLong matchedVersion = checkIfMatch(request, id);
+        if (matchedVersion.isPresent()) {
+            patch.put("version", matchedVersion.getAsLong());
+        }
+
+        Optional<AuthorDTO> result;
+        try {
+            result = authorService.partialUpdate(id, patch);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME);
+        }
+        return ResponseEntity
+                .ok()
+                .headers(HeaderUtil.createEntityUpdateAlert(applicationName, ENTITY_NAME, id.toString()))
+                .body(result.orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME)));
+    }
+
+    /**
+     * Check the {@code If-Match} header of a request against the current tag of the author.
+     *
+     * @return the version of the author which matched, empty if the request has no {@code If-Match} header.
+     */
+    private OptionalLong checkIfMatch(WebRequest request, Long id) {
+        String ifMatch = request.getHeader(HttpHeaders.IF_MATCH);
+        if (ifMatch == null) {
+            return OptionalLong.empty();
+        }
+        EntityState state = authorService.findState(id).orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME));
+        if (!ResponseUtil.matchesETagStrongly(ifMatch, state.getETag())) {
+            throw new ObjectOptimisticLockingFailureException(Author.class, id);
+        }
+        return OptionalLong.of(state.getVersion());
+    }
+
     /**
      * {@code GET  /authors} : get all the authors.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of authors in body.
+     * @param request  the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of authors in body, or with status
+     * {@code 304 (Not Modified)} if the catalog has not changed since the client got the list.
      */
     @GetMapping("/authors")
-    public ResponseEntity<List<Author>> getAllAuthors(Pageable pageable) {
+    public ResponseEntity<List<AuthorDTO>> getAllAuthors(Pageable pageable, WebRequest request) {
         log.debug("REST request to get a page of Authors");
-        Page<Author> page = authorService.findAll(pageable);
+        // Read before querying, so the tag is never newer than the list
+        String eTag = catalogVersion.getETag();
+        if (ResponseUtil.isNotModified(request, eTag, null)) {
+            return ResponseUtil.notModified(eTag, null);
+        }
+        Page<AuthorDTO> page = authorService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        return ResponseEntity.ok().headers(headers).eTag(eTag).body(page.getContent());
     }
 
     /**
      * {@code GET  /authors/:id} : get the "id" author.
      *
-     * @param id the id of the author to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the author, or with status {@code 404 (Not Found)}.
+     * @param id      the id of the author to retrieve.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the author, or with status {@code 304 (Not Modified)}
+     * if the client already has it, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/authors/{id}")
-    public ResponseEntity<Author> getAuthor(@PathVariable Long id) {
+    public ResponseEntity<AuthorDTO> getAuthor(@PathVariable Long id, WebRequest request) {
         log.debug("REST request to get Author : {}", id);
-        Optional<Author> author = authorService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(author);
+        EntityState state = authorService.findState(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        return ResponseUtil.wrapOrNotModified(request, state.getETag(), state.getLastModifiedDate(), () -> authorService.findOne(id, state));
     }
 
     /**
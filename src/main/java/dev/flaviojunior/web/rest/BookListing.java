@@ -0,0 +1,159 @@
+package dev.flaviojunior.web.rest;
+
+import dev.flaviojunior.common.service.KeysetCursor;
+import dev.flaviojunior.common.web.rest.errors.BadRequestAlertException;
+import dev.flaviojunior.common.web.util.CountMode;
+import dev.flaviojunior.common.web.util.PaginationUtil;
+import dev.flaviojunior.common.web.util.ResponseUtil;
+import dev.flaviojunior.service.BookQueryService;
+import dev.flaviojunior.service.CatalogVersion;
+import dev.flaviojunior.service.criteria.BookCriteria;
+import dev.flaviojunior.service.dto.BookDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Book lists of {@link BookResource} and {@link LibraryResource}: the pagination by offset, without count, with an
+ * estimated count or by keyset, the selection of fields, and the conditional requests on the catalog.
+ */
+@Component
+class BookListing {
+
+    private static final String ENTITY_NAME = "book";
+
+    private final BookQueryService bookQueryService;
+
+    private final CatalogVersion catalogVersion;
+
+    BookListing(BookQueryService bookQueryService, CatalogVersion catalogVersion) {
+        this.bookQueryService = bookQueryService;
+        this.catalogVersion = catalogVersion;
+    }
+
+    /**
+     * Get the books matching the criteria.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param pageable the pagination information; the {@value BookQueryService#RELEVANCE} sort needs a full-text
+     *                 search in the criteria, and no cursor.
+     * @param cursor   the keyset cursor, {@code null} to paginate by offset.
+     * @param count    how the total is computed: {@code exact} (default), {@code none} or {@code estimated}, which is
+     *                 only allowed without filters.
+     * @param request  the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body, or with status
+     * {@code 304 (Not Modified)} if the catalog has not changed since the client got the list.
+     * @throws BadRequestAlertException if the count mode is unknown, or {@code estimated} with filters, or if the list is
+     *                                  sorted by relevance without a full-text search.
+     */
+    ResponseEntity<List<BookDTO>> getAllBooks(BookCriteria criteria, Pageable pageable, String cursor, String count, WebRequest request) {
+        // Read before querying, so the tag is never newer than the list
+        String eTag = catalogVersion.getETag();
+        if (ResponseUtil.isNotModified(request, eTag, null)) {
+            return ResponseUtil.notModified(eTag, null);
+        }
+        return ResponseUtil.withETag(findAllBooks(criteria, pageable, cursor, count), eTag);
+    }
+
+    /**
+     * Get the given fields of the books matching the criteria, paginated by offset, with the total count.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param pageable the pagination information.
+     * @param fields   the fields to return.
+     * @param request  the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the fields of the books in body, or with status
+     * {@code 304 (Not Modified)} if the catalog has not changed since the client got the list.
+     * @throws BadRequestAlertException if a field is unknown, or if the list is sorted by relevance without a full-text
+     *                                  search.
+     */
+    ResponseEntity<List<Map<String, Object>>> getAllBookFields(BookCriteria criteria, Pageable pageable, List<String> fields, WebRequest request) {
+        String eTag = catalogVersion.getETag();
+        if (ResponseUtil.isNotModified(request, eTag, null)) {
+            return ResponseUtil.notModified(eTag, null);
+        }
+        Page<Map<String, Object>> page;
+        try {
+            page = bookQueryService.findFieldsByCriteria(criteria, fields, pageable);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME);
+        }
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).eTag(eTag).body(page.getContent());
+    }
+
+    private ResponseEntity<List<BookDTO>> findAllBooks(BookCriteria criteria, Pageable pageable, String cursor, String count) {
+        if (cursor != null) {
+            return getAllBooksByCursor(criteria, pageable, cursor);
+        }
+        CountMode countMode = parseCountMode(count);
+        try {
+            switch (countMode) {
+                case NONE:
+                    return getAllBooksWithoutCount(criteria, pageable);
+                case ESTIMATED:
+                    return getAllBooksWithEstimatedCount(criteria, pageable);
+                default:
+                    Page<BookDTO> page = bookQueryService.findByCriteria(criteria, pageable);
+                    HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+                    return ResponseEntity.ok().headers(headers).body(page.getContent());
+            }
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME);
+        }
+    }
+
+    private ResponseEntity<List<BookDTO>> getAllBooksWithoutCount(BookCriteria criteria, Pageable pageable) {
+        Slice<BookDTO> slice = bookQueryService.findSliceByCriteria(criteria, pageable);
+        HttpHeaders headers = PaginationUtil.generateSlicePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    private ResponseEntity<List<BookDTO>> getAllBooksWithEstimatedCount(BookCriteria criteria, Pageable pageable) {
+        OptionalLong estimate = bookQueryService.estimateCountByCriteria(criteria);
+        if (estimate.isEmpty()) {
+            // The statistics are kept per table, an estimate of the whole catalog would be wrong for a filtered list
+            throw new BadRequestAlertException("The count can only be estimated without filters", ENTITY_NAME);
+        }
+        Slice<BookDTO> slice = bookQueryService.findSliceByCriteria(criteria, pageable);
+        HttpHeaders headers = PaginationUtil.generateEstimatedPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                slice,
+                estimate.getAsLong()
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    private ResponseEntity<List<BookDTO>> getAllBooksByCursor(BookCriteria criteria, Pageable pageable, String cursor) {
+        Slice<BookDTO> slice;
+        try {
+            slice = bookQueryService.findByCriteria(criteria, KeysetCursor.decode(cursor), pageable);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME);
+        }
+        KeysetCursor nextCursor = bookQueryService.nextCursor(slice);
+        HttpHeaders headers = PaginationUtil.generateCursorPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                slice,
+                nextCursor == null ? null : nextCursor.encode()
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    private CountMode parseCountMode(String count) {
+        try {
+            return CountMode.fromValue(count);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid count mode", ENTITY_NAME);
+        }
+    }
+}
@@ -1,30 +1,50 @@
 package dev.flaviojunior.web.rest;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import dev.flaviojunior.common.web.rest.errors.BadRequestAlertException;
+import dev.flaviojunior.common.web.rest.errors.PreconditionRequiredException;
 import dev.flaviojunior.common.web.util.HeaderUtil;
-import dev.flaviojunior.common.web.util.PaginationUtil;
 import dev.flaviojunior.common.web.util.ResponseUtil;
 import dev.flaviojunior.domain.Book;
-import dev.flaviojunior.repository.BookRepository;
+import dev.flaviojunior.repository.EntityState;
+import dev.flaviojunior.service.BookBulkService;
+import dev.flaviojunior.service.BookExportService;
+import dev.flaviojunior.service.BookImportService;
 import dev.flaviojunior.service.BookQueryService;
 import dev.flaviojunior.service.BookService;
 import dev.flaviojunior.service.criteria.BookCriteria;
+import dev.flaviojunior.service.dto.BookDTO;
+import dev.flaviojunior.service.dto.BookImportResultDTO;
+import dev.flaviojunior.service.dto.BulkItemResultDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 /**
  * REST controller for managing {@link Book}.
@@ -42,81 +62,346 @@ public class BookResource {
 
     private final BookService bookService;
 
-    private final BookRepository bookRepository;
-
     private final BookQueryService bookQueryService;
 
-    public BookResource(BookService bookService, BookRepository bookRepository, BookQueryService bookQueryService) {
+    private final BookImportService bookImportService;
+
+    private final BookBulkService bookBulkService;
+
+    private final BookExportService bookExportService;
+
+    private final BookListing bookListing;
+
+    public BookResource(
+            BookService bookService,
+            BookQueryService bookQueryService,
+            BookImportService bookImportService,
+            BookBulkService bookBulkService,
+            BookExportService bookExportService,
+            BookListing bookListing
+    ) {
         this.bookService = bookService;
-        this.bookRepository = bookRepository;
         this.bookQueryService = bookQueryService;
+        this.bookImportService = bookImportService;
+        this.bookBulkService = bookBulkService;
+        this.bookExportService = bookExportService;
+        this.bookListing = bookListing;
     }
 
     /**
      * {@code POST  /books} : Creates a new book.
      *
-     * @param book A book to create.
+     * @param bookDTO A book to create.
      * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new book, or with status {@code 400 (Bad Request)} if the book has already an ID.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("/books")
-    public ResponseEntity<Book> createBook(@Valid @RequestBody Book book) throws URISyntaxException {
-        log.debug("REST request to save Book : {}", book);
-        if (book.getId() != null) {
+    public ResponseEntity<BookDTO> createBook(@Valid @RequestBody BookDTO bookDTO) throws URISyntaxException {
+        log.debug("REST request to save Book : {}", bookDTO);
+        if (bookDTO.getId() != null) {
             throw new BadRequestAlertException("A new book cannot already have an ID", ENTITY_NAME);
         }
-        Book result = bookService.save(book);
+        BookDTO result = bookService.save(bookDTO);
         return ResponseEntity
                 .created(new URI("/api/books/" + result.getId()))
                 .headers(HeaderUtil.createEntityCreationAlert(applicationName, ENTITY_NAME, result.getId().toString()))
                 .body(result);
     }
 
+    /**
+     * {@code POST  /books/import} : Imports the books of a CSV file.
+     *
+     * @param file the CSV file, with a {@code Title} column and optional {@code Author}, {@code Genre},
+     *             {@code SubGenre}, {@code Publisher} and {@code ISBN} columns.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the summary of the import,
+     * or with status {@code 400 (Bad Request)} if the file has no {@code Title} column.
+     * @throws IOException if the file can not be read.
+     */
+    @PostMapping("/books/import")
+    public ResponseEntity<BookImportResultDTO> importBooks(@RequestParam("file") MultipartFile file) throws IOException {
+        log.debug("REST request to import Books : {}", file.getOriginalFilename());
+        try (InputStream inputStream = file.getInputStream()) {
+            return ResponseEntity.ok(bookImportService.importCsv(inputStream));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME);
+        }
+    }
+
+    /**
+     * {@code GET  /books/export} : Exports all the books, streamed as they are read.
+     *
+     * @param format the format of the export, {@code ndjson} (the default) or {@code csv}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the books,
+     * or with status {@code 400 (Bad Request)} if the format is not supported.
+     */
+    @GetMapping("/books/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(@RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        log.debug("REST request to export Books : {}", format);
+        switch (format.toLowerCase(Locale.ROOT)) {
+            case "ndjson":
+                return exportBooks(MediaType.APPLICATION_NDJSON, "books.ndjson", bookExportService::exportNdjson);
+            case "csv":
+                return exportBooks(new MediaType("text", "csv", StandardCharsets.UTF_8), "books.csv", bookExportService::exportCsv);
+            default:
+                throw new BadRequestAlertException("Unsupported export format", ENTITY_NAME);
+        }
+    }
+
+    /**
+     * {@code POST  /books/bulk} : Creates new books.
+     *
+     * @param books the books to create.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each book,
+     * or with status {@code 400 (Bad Request)} if there are too many books.
+     */
+    @PostMapping("/books/bulk")
+    public ResponseEntity<List<BulkItemResultDTO>> createBooks(@RequestBody List<BookDTO> books) {
+        log.debug("REST request to create {} Books", books.size());
+        try {
+            return ResponseEntity.ok(bookBulkService.createAll(books));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME);
+        }
+    }
+
+    /**
+     * {@code POST  /books/bulk} : Creates new books, sent as NDJSON.
+     *
+     * @param body the books to create, one per line.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each book,
+     * or with status {@code 400 (Bad Request)} if there are too many books or a book can not be read.
+     */
+    @PostMapping(value = "/books/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<BulkItemResultDTO>> createBooksFromNdjson(InputStream body) {
+        log.debug("REST request to create Books from NDJSON");
+        try {
+            return ResponseEntity.ok(bookBulkService.createAll(bookBulkService.readNdjson(body, BookDTO.class)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME);
+        }
+    }
+
+    /**
+     * {@code PUT  /books/bulk} : Updates existing books.
+     *
+     * @param books the books to update.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each book,
+     * or with status {@code 400 (Bad Request)} if there are too many books.
+     */
+    @PutMapping("/books/bulk")
+    public ResponseEntity<List<BulkItemResultDTO>> updateBooks(@RequestBody List<BookDTO> books) {
+        log.debug("REST request to update {} Books", books.size());
+        try {
+            return ResponseEntity.ok(bookBulkService.updateAll(books));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME);
+        }
+    }
+
+    /**
+     * {@code PUT  /books/bulk} : Updates existing books, sent as NDJSON.
+     *
+     * @param body the books to update, one per line.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each book,
+     * or with status {@code 400 (Bad Request)} if there are too many books or a book can not be read.
+     */
+    @PutMapping(value = "/books/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<BulkItemResultDTO>> updateBooksFromNdjson(InputStream body) {
+        log.debug("REST request to update Books from NDJSON");
+        try {
+            return ResponseEntity.ok(bookBulkService.updateAll(bookBulkService.readNdjson(body, BookDTO.class)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME);
+        }
+    }
+
+    /**
+     * {@code DELETE  /books/bulk} : Deletes books.
+     *
+     * @param ids the ids of the books to delete.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each id,
+     * or with status {@code 400 (Bad Request)} if there are too many ids.
+     */
+    @DeleteMapping("/books/bulk")
+    public ResponseEntity<List<BulkItemResultDTO>> deleteBooks(@RequestBody List<Long> ids) {
+        log.debug("REST request to delete {} Books", ids.size());
+        try {
+            return ResponseEntity.ok(bookBulkService.deleteAll(ids));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME);
+        }
+    }
+
+    /**
+     * {@code DELETE  /books/bulk} : Deletes books, whose ids are sent as NDJSON.
+     *
+     * @param body the ids of the books to delete, one per line.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each id,
+     * or with status {@code 400 (Bad Request)} if there are too many ids or an id can not be read.
+     */
+    @DeleteMapping(value = "/books/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<BulkItemResultDTO>> deleteBooksFromNdjson(InputStream body) {
+        log.debug("REST request to delete Books from NDJSON");
+        try {
+            return ResponseEntity.ok(bookBulkService.deleteAll(bookBulkService.readNdjson(body, Long.class)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME);
+        }
+    }
+
     /**
      * {@code PUT  /books/:id} : Updates an existing book.
      *
-     * @param id   the id of the book to save.
-     * @param book the book to update.
+     * @param id      the id of the book to save.
+     * @param bookDTO the book to update.
+     * @param request the current request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated book,
      * or with status {@code 400 (Bad Request)} if the book is not valid,
+     * or with status {@code 409 (Conflict)} if the book was changed since its version or its {@code If-Match} tag,
+     * or with status {@code 428 (Precondition Required)} if the book has no version and there is no {@code If-Match} tag,
      * or with status {@code 500 (Internal Server Error)} if the book couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/books/{id}")
-    public ResponseEntity<Book> updateBook(@PathVariable(value = "id", required = false) final Long id, @Valid @RequestBody Book book)
-            throws URISyntaxException {
-        log.debug("REST request to update Book : {}, {}", id, book);
-        if (book.getId() == null) {
+    public ResponseEntity<BookDTO> updateBook(
+            @PathVariable(value = "id", required = false) final Long id,
+            @Valid @RequestBody BookDTO bookDTO,
+            WebRequest request
+    ) throws URISyntaxException {
+        log.debug("REST request to update Book : {}, {}", id, bookDTO);
+        if (bookDTO.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME);
         }
-        if (!Objects.equals(id, book.getId())) {
+        if (!Objects.equals(id, bookDTO.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME);
         }
 
-        if (!bookRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME);
+        OptionalLong matchedVersion = checkIfMatch(request, id);
+        if (matchedVersion.isPresent()) {
+            // The update is conditional on the version which matched
+            bookDTO.setVersion(matchedVersion.getAsLong());
+        } else if (bookDTO.getVersion() == null) {
+            throw new PreconditionRequiredException("The book must have its version, or the request an If-Match header", ENTITY_NAME);
         }
 
-        Book result = bookService.save(book);
+        BookDTO result;
+        try {
+            result = bookService.update(bookDTO).orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME);
+        }
         return ResponseEntity
                 .ok()
-                .headers(HeaderUtil.createEntityUpdateAlert(applicationName, ENTITY_NAME, book.getId().toString()))
+                .headers(HeaderUtil.createEntityUpdateAlert(applicationName, ENTITY_NAME, bookDTO.getId().toString()))
                 .body(result);
     }
 
+    /**
+     * {@code PATCH  /books/:id} : Partial updates given fields of an existing book, as a JSON merge patch: a
+     * {@code null} field is cleared, and a missing one is left unchanged.
+     *
+     * @param id      the id of the book to save.
+     * @param patch   the fields of the book to update.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated book,
+     * or with status {@code 400 (Bad Request)} if the book is not found or the patch is not valid,
+     * or with status {@code 409 (Conflict)} if the book was changed since its version or its {@code If-Match} tag.
+     */
+    @PatchMapping(value = "/books/{id}", consumes = { "application/merge-patch+json", "application/json" })
+    public ResponseEntity<BookDTO> partialUpdateBook(
+            @PathVariable(value = "id", required = false) final Long id,
+            @RequestBody ObjectNode patch,
+            WebRequest request
+    ) {
+        log.debug("REST request to partial update Book : {}, {}", id, patch);
+        JsonNode patchId = patch.get("id");
+        if (patchId != null && !patchId.isNull() && !Objects.equals(id, patchId.asLong())) {
+            throw new BadRequestAlertException("Invalid ID", ENTITY_NAME);
+        }
+        OptionalLong matchedVersion = checkIfMatch(request, id);
+        if (matchedVersion.isPresent()) {
+            patch.put("version", matchedVersion.getAsLong());
+        }
+
+        Optional<BookDTO> result;
+        try {
+            result = bookService.partialUpdate(id, patch);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME);
+        }
+        return ResponseEntity
+                .ok()
+                .headers(HeaderUtil.createEntityUpdateAlert(applicationName, ENTITY_NAME, id.toString()))
+                .body(result.orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME)));
+    }
+
+    /**
+     * Check the {@code If-Match} header of a request against the current tag of the book.
+     *
+     * @return the version of the book which matched, empty if the request has no {@code If-Match} header.
+     */
+    private OptionalLong checkIfMatch(WebRequest request, Long id) {
+        String ifMatch = request.getHeader(HttpHeaders.IF_MATCH);
+        if (ifMatch == null) {
+            return OptionalLong.empty();
+        }
+        EntityState state = bookService.findState(id).orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME));
+        if (!ResponseUtil.matchesETagStrongly(ifMatch, state.getETag())) {
+            throw new ObjectOptimisticLockingFailureException(Book.class, id);
+        }
+        return OptionalLong.of(state.getVersion());
+    }
+
     /**
      * {@code GET  /books} : get all the books.
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body.
+     * @param cursor   the keyset cursor returned in the {@code next} link, empty for the first slice; when present the
+     *                 books are paginated by keyset instead of by offset.
+     * @param count    how the total is computed: {@code exact} (default), {@code none} or {@code estimated}, which is
+     *                 only allowed without filters.
+     * @param request  the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body, or with status
+     * {@code 304 (Not Modified)} if the catalog has not changed since the client got the list.
      */
     @GetMapping("/books")
-    public ResponseEntity<List<Book>> getAllBooks(BookCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<BookDTO>> getAllBooks(
+            BookCriteria criteria,
+            Pageable pageable,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "count", required = false) String count,
+            WebRequest request
+    ) {
         log.debug("REST request to get Books by criteria: {}", criteria);
-        Page<Book> page = bookQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        return bookListing.getAllBooks(criteria, pageable, cursor, count, request);
+    }
+
+    /**
+     * {@code GET  /books?fields=} : get the given fields of all the books.
+     * <p>
+     * Only the columns of the requested fields are read, and the authors and categories are only loaded when
+     * requested. The books are paginated by offset, with the total count.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param pageable the pagination information.
+     * @param fields   the fields to return, among {@code id}, {@code title}, {@code isbn}, {@code imagePath},
+     *                 {@code publisher}, {@code dateOfPublication}, {@code authors} and {@code categories}; the id is
+     *                 always returned.
+     * @param request  the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the fields of the books in body, or with status
+     * {@code 304 (Not Modified)} if the catalog has not changed since the client got the list, or with status
+     * {@code 400 (Bad Request)} if a field is unknown.
+     */
+    @GetMapping(value = "/books", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllBookFields(
+            BookCriteria criteria,
+            Pageable pageable,
+            @RequestParam("fields") List<String> fields,
+            WebRequest request
+    ) {
+        log.debug("REST request to get the fields {} of Books by criteria: {}", fields, criteria);
+        return bookListing.getAllBookFields(criteria, pageable, fields, request);
     }
 
     /**
@@ -134,14 +419,16 @@ public class BookResource {
     /**
      * {@code GET  /books/:id} : get the "id" book.
      *
-     * @param id the id of the book to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the book, or with status {@code 404 (Not Found)}.
+     * @param id      the id of the book to retrieve.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the book, or with status {@code 304 (Not Modified)}
+     * if the client already has it, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/books/{id}")
-    public ResponseEntity<Book> getBook(@PathVariable Long id) {
+    public ResponseEntity<BookDTO> getBook(@PathVariable Long id, WebRequest request) {
         log.debug("REST request to get Book : {}", id);
-        Optional<Book> book = bookService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(book);
+        EntityState state = bookService.findState(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        return ResponseUtil.wrapOrNotModified(request, state.getETag(), state.getLastModifiedDate(), () -> bookService.findOne(id, state));
     }
 
     /**
@@ -167,9 +454,17 @@ public class BookResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the book, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/books/{isbn}/isbn")
-    public ResponseEntity<Book> getBook(@PathVariable String isbn) {
+    public ResponseEntity<BookDTO> getBook(@PathVariable String isbn) {
         log.debug("REST request to get Book : {}", isbn);
-        Optional<Book> book = bookService.findOneByIsbn(isbn);
+        Optional<BookDTO> book = bookService.findOneByIsbn(isbn);
         return ResponseUtil.wrapOrNotFound(book);
     }
+
+    private ResponseEntity<StreamingResponseBody> exportBooks(MediaType mediaType, String filename, StreamingResponseBody body) {
+        return ResponseEntity
+                .ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
 }
@@ -1,20 +1,29 @@
 package dev.flaviojunior.web.rest;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import dev.flaviojunior.common.web.rest.errors.BadRequestAlertException;
+import dev.flaviojunior.common.web.rest.errors.PreconditionRequiredException;
 import dev.flaviojunior.common.web.util.HeaderUtil;
 import dev.flaviojunior.common.web.util.PaginationUtil;
 import dev.flaviojunior.common.web.util.ResponseUtil;
 import dev.flaviojunior.domain.Category;
-import dev.flaviojunior.repository.CategoryRepository;
+import dev.flaviojunior.repository.EntityState;
+import dev.flaviojunior.service.CatalogVersion;
 import dev.flaviojunior.service.CategoryService;
+import dev.flaviojunior.service.dto.CategoryDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.validation.Valid;
@@ -23,6 +32,7 @@ import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 /**
  * REST controller for managing {@link Category}.
@@ -40,27 +50,27 @@ public class CategoryResource {
 
     private final CategoryService categoryService;
 
-    private final CategoryRepository categoryRepository;
+    private final CatalogVersion catalogVersion;
 
-    public CategoryResource(CategoryService categoryService, CategoryRepository categoryRepository) {
+    public CategoryResource(CategoryService categoryService, CatalogVersion catalogVersion) {
         this.categoryService = categoryService;
-        this.categoryRepository = categoryRepository;
+        this.catalogVersion = catalogVersion;
     }
 
     /**
      * {@code POST  /categories} : Creates a new category.
      *
-     * @param category A category to create.
+     * @param categoryDTO A category to create.
      * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new category, or with status {@code 400 (Bad Request)} if the category has already an ID.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("/categories")
-    public ResponseEntity<Category> createCategory(@Valid @RequestBody Category category) throws URISyntaxException {
-        log.debug("REST request to save Category : {}", category);
-        if (category.getId() != null) {
+    public ResponseEntity<CategoryDTO> createCategory(@Valid @RequestBody CategoryDTO categoryDTO) throws URISyntaxException {
+        log.debug("REST request to save Category : {}", categoryDTO);
+        if (categoryDTO.getId() != null) {
             throw new BadRequestAlertException("A new category cannot already have an ID", ENTITY_NAME);
         }
-        Category result = categoryService.save(category);
+        CategoryDTO result = categoryService.save(categoryDTO);
         return ResponseEntity
                 .created(new URI("/api/categories/" + result.getId()))
                 .headers(HeaderUtil.createEntityCreationAlert(applicationName, ENTITY_NAME, result.getId().toString()))
@@ -70,62 +80,135 @@ public class CategoryResource {
     /**
      * {@code PUT  /categories/:id} : Updates an existing category.
      *
-     * @param id       the id of the category to save.
-     * @param category the category to update.
+     * @param id          the id of the category to save.
+     * @param categoryDTO the category to update.
+     * @param request     the current request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated category,
      * or with status {@code 400 (Bad Request)} if the category is not valid,
+     * or with status {@code 409 (Conflict)} if the category was changed since its version or its {@code If-Match} tag,
+     * or with status {@code 428 (Precondition Required)} if the category has no version and there is no {@code If-Match} tag,
      * or with status {@code 500 (Internal Server Error)} if the category couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/categories/{id}")
-    public ResponseEntity<Category> updateCategory(
+    public ResponseEntity<CategoryDTO> updateCategory(
             @PathVariable(value = "id", required = false) final Long id,
-            @Valid @RequestBody Category category
+            @Valid @RequestBody CategoryDTO categoryDTO,
+            WebRequest request
     ) throws URISyntaxException {
-        log.debug("REST request to update Category : {}, {}", id, category);
-        if (category.getId() == null) {
+        log.debug("REST request to update Category : {}, {}", id, categoryDTO);
+        if (categoryDTO.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME);
         }
-        if (!Objects.equals(id, category.getId())) {
+        if (!Objects.equals(id, categoryDTO.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME);
         }
 
-        if (!categoryRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME);
+        OptionalLong matchedVersion = checkIfMatch(request, id);
+        if (matchedVersion.isPresent()) {
+            // The update is conditional on the version which matched
+            categoryDTO.setVersion(matchedVersion.getAsLong());
+        } else if (categoryDTO.getVersion() == null) {
+            throw new PreconditionRequiredException("The category must have its version, or the request an If-Match header", ENTITY_NAME);
         }
 
-        Category result = categoryService.save(category);
+        CategoryDTO result = categoryService.update(categoryDTO).orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME));
         return ResponseEntity
                 .ok()
-                .headers(HeaderUtil.createEntityUpdateAlert(applicationName, ENTITY_NAME, category.getId().toString()))
+                .headers(HeaderUtil.createEntityUpdateAlert(applicationName, ENTITY_NAME, categoryDTO.getId().toString()))
                 .body(result);
     }
 
+    /**
+     * {@code PATCH  /categories/:id} : Partial updates given fields of an existing category, as a JSON merge patch: a
+     * {@code null} field is cleared, and a missing one is left unchanged.
+     *
+     * @param id      the id of the category to save.
+     * @param patch   the fields of the category to update.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated category,
+     * or with status {@code 400 (Bad Request)} if the category is not found or the patch is not valid,
+     * or with status {@code 409 (Conflict)} if the category was changed since its version or its {@code If-Match} tag.
+     */
+    @PatchMapping(value = "/categories/{id}", consumes = { "application/merge-patch+json", "application/json" })
+    public ResponseEntity<CategoryDTO> partialUpdateCategory(
+            @PathVariable(value = "id", required = false) final Long id,
+            @RequestBody ObjectNode patch,
+            WebRequest request
+    ) {
+        log.debug("REST request to partial update Category : {}, {}", id, patch);
+        JsonNode patchId = patch.get("id");
+        if (patchId != null && !patchId.isNull() && !Objects.equals(id, patchId.asLong())) {
+            throw new BadRequestAlertException("Invalid ID", ENTITY_NAME);
+        }
+        OptionalLong matchedVersion = checkIfMatch(request, id);
+        if (matchedVersion.isPresent()) {
+            patch.put("version", matchedVersion.getAsLong());
+        }
+
+        Optional<CategoryDTO> result;
+        try {
+            result = categoryService.partialUpdate(id, patch);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME);
+        }
+        return ResponseEntity
+                .ok()
+                .headers(HeaderUtil.createEntityUpdateAlert(applicationName, ENTITY_NAME, id.toString()))
+                .body(result.orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME)));
+    }
+
+    /**
+     * Check the {@code If-Match} header of a request against the current tag of the category.
+     *
+     * @return the version of the category which matched, empty if the request has no {@code If-Match} header.
+     */
+    private OptionalLong checkIfMatch(WebRequest request, Long id) {
+        String ifMatch = request.getHeader(HttpHeaders.IF_MATCH);
+        if (ifMatch == null) {
+            return OptionalLong.empty();
+        }
+        EntityState state = categoryService.findState(id).orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME));
+        if (!ResponseUtil.matchesETagStrongly(ifMatch, state.getETag())) {
+            throw new ObjectOptimisticLockingFailureException(Category.class, id);
+        }
+        return OptionalLong.of(state.getVersion());
+    }
+
     /**
      * {@code GET  /categories} : get all the categories.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of categories in body.
+     * @param request  the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of categories in body, or with status
+     * {@code 304 (Not Modified)} if the catalog has not changed since the client got the list.
      */
     @GetMapping("/categories")
-    public ResponseEntity<List<Category>> getAllCategories(Pageable pageable) {
+    public ResponseEntity<List<CategoryDTO>> getAllCategories(Pageable pageable, WebRequest request) {
         log.debug("REST request to get a page of Categories");
-        Page<Category> page = categoryService.findAll(pageable);
+        // Read before querying, so the tag is never newer than the list
+        String eTag = catalogVersion.getETag();
+        if (ResponseUtil.isNotModified(request, eTag, null)) {
+            return ResponseUtil.notModified(eTag, null);
+        }
+        Page<CategoryDTO> page = categoryService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        return ResponseEntity.ok().headers(headers).eTag(eTag).body(page.getContent());
     }
 
     /**
      * {@code GET  /categories/:id} : get the "id" category.
      *
-     * @param id the id of the category to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the category, or with status {@code 404 (Not Found)}.
+     * @param id      the id of the category to retrieve.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the category, or with status {@code 304 (Not Modified)}
+     * if the client already has it, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/categories/{id}")
-    public ResponseEntity<Category> getCategory(@PathVariable Long id) {
+    public ResponseEntity<CategoryDTO> getCategory(@PathVariable Long id, WebRequest request) {
         log.debug("REST request to get Category : {}", id);
-        Optional<Category> category = categoryService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(category);
+        EntityState state = categoryService.findState(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        return ResponseUtil.wrapOrNotModified(request, state.getETag(), state.getLastModifiedDate(), () -> categoryService.findOne(id, state));
     }
 
     /**
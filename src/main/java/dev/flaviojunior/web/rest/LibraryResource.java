@@ -1,29 +1,33 @@
 package dev.flaviojunior.web.rest;
 
-import dev.flaviojunior.common.web.util.PaginationUtil;
+import dev.flaviojunior.common.web.rest.errors.BadRequestAlertException;
 import dev.flaviojunior.common.web.util.ResponseUtil;
-import dev.flaviojunior.domain.Author;
-import dev.flaviojunior.domain.Book;
-import dev.flaviojunior.domain.Category;
+import dev.flaviojunior.repository.EntityState;
 import dev.flaviojunior.service.AuthorService;
-import dev.flaviojunior.service.BookQueryService;
 import dev.flaviojunior.service.BookService;
 import dev.flaviojunior.service.CategoryService;
+import dev.flaviojunior.service.LibrarySearchService;
 import dev.flaviojunior.service.criteria.BookCriteria;
+import dev.flaviojunior.service.dto.AuthorDTO;
+import dev.flaviojunior.service.dto.BookDTO;
+import dev.flaviojunior.service.dto.CategoryDTO;
+import dev.flaviojunior.service.dto.LibrarySearchResultDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -32,6 +36,10 @@ public class LibraryResource {
 
     private final Logger log = LoggerFactory.getLogger(CategoryResource.class);
 
+    private static final String ENTITY_NAME = "book";
+
+    private static final int MAX_SEARCH_LIMIT = 50;
+
     @Value("${spring.application.name}")
     private String applicationName;
 
@@ -39,15 +47,43 @@ public class LibraryResource {
 
     private final AuthorService authorService;
 
-    private final BookQueryService bookQueryService;
-
     private final BookService bookService;
 
-    public LibraryResource(CategoryService categoryService, AuthorService authorService, BookQueryService bookQueryService, BookService bookService) {
+    private final LibrarySearchService librarySearchService;
+
+    private final BookListing bookListing;
+
+    public LibraryResource(
+            CategoryService categoryService,
+            AuthorService authorService,
+            BookService bookService,
+            LibrarySearchService librarySearchService,
+            BookListing bookListing
+    ) {
         this.categoryService = categoryService;
         this.authorService = authorService;
-        this.bookQueryService =bookQueryService;
         this.bookService = bookService;
+        this.librarySearchService = librarySearchService;
+        this.bookListing = bookListing;
+    }
+
+    /**
+     * {@code GET  /search?q=} : search the books, authors and categories, for autocomplete.
+     *
+     * @param query the words to look for, the last one can be incomplete.
+     * @param limit the maximum number of results of each kind, at most 50.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the books, authors and categories found in body.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<LibrarySearchResultDTO> search(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "10") int limit
+    ) {
+        log.debug("REST request to search the library : {}", query);
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new BadRequestAlertException("Invalid search limit", ENTITY_NAME);
+        }
+        return ResponseEntity.ok(librarySearchService.search(query, limit));
     }
 
     /**
@@ -55,14 +91,51 @@ public class LibraryResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body.
+     * @param cursor   the keyset cursor returned in the {@code next} link, empty for the first slice; when present the
+     *                 books are paginated by keyset instead of by offset.
+     * @param count    how the total is computed: {@code exact} (default), {@code none} or {@code estimated}, which is
+     *                 only allowed without filters.
+     * @param request  the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body, or with status
+     * {@code 304 (Not Modified)} if the catalog has not changed since the client got the list.
      */
     @GetMapping("/books")
-    public ResponseEntity<List<Book>> getAllBooks(BookCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<BookDTO>> getAllBooks(
+            BookCriteria criteria,
+            Pageable pageable,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "count", required = false) String count,
+            WebRequest request
+    ) {
         log.debug("REST request to get Books by criteria: {}", criteria);
-        Page<Book> page = bookQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        return bookListing.getAllBooks(criteria, pageable, cursor, count, request);
+    }
+
+    /**
+     * {@code GET  /books?fields=} : get the given fields of all the books.
+     * <p>
+     * Only the columns of the requested fields are read, and the authors and categories are only loaded when
+     * requested. The books are paginated by offset, with the total count.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param pageable the pagination information.
+     * @param fields   the fields to return, among {@code id}, {@code title}, {@code isbn}, {@code imagePath},
+     *                 {@code publisher}, {@code dateOfPublication}, {@code authors} and {@code categories}; the id is
+     *                 always returned.
+     * @param request  the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the fields of the books in body, or with status
+     * {@code 304 (Not Modified)} if the catalog has not changed since the client got the list, or with status
+     * {@code 400 (Bad Request)} if a field is unknown.
+     */
+    @GetMapping(value = "/books", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllBookFields(
+            BookCriteria criteria,
+            Pageable pageable,
+            @RequestParam("fields") List<String> fields,
+            WebRequest request
+    ) {
+        log.debug("REST request to get the fields {} of Books by criteria: {}", fields, criteria);
+        return bookListing.getAllBookFields(criteria, pageable, fields, request);
     }
 
     /**
@@ -72,35 +145,39 @@ public class LibraryResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the book, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/books/{isbn}/isbn")
-    public ResponseEntity<Book> getBook(@PathVariable String isbn) {
+    public ResponseEntity<BookDTO> getBook(@PathVariable String isbn) {
         log.debug("REST request to get Book : {}", isbn);
-        Optional<Book> book = bookService.findOneByIsbn(isbn);
+        Optional<BookDTO> book = bookService.findOneByIsbn(isbn);
         return ResponseUtil.wrapOrNotFound(book);
     }
 
     /**
      * {@code GET  /categories/:id} : get the "id" category.
      *
-     * @param id the id of the category to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the category, or with status {@code 404 (Not Found)}.
+     * @param id      the id of the category to retrieve.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the category, or with status {@code 304 (Not Modified)}
+     * if the client already has it, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/categories/{id}")
-    public ResponseEntity<Category> getCategory(@PathVariable Long id) {
+    public ResponseEntity<CategoryDTO> getCategory(@PathVariable Long id, WebRequest request) {
         log.debug("REST request to get Category : {}", id);
-        Optional<Category> category = categoryService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(category);
+        EntityState state = categoryService.findState(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        return ResponseUtil.wrapOrNotModified(request, state.getETag(), state.getLastModifiedDate(), () -> categoryService.findOne(id, state));
     }
 
     /**
      * {@code GET  /authors/:id} : get the "id" author.
      *
-     * @param id the id of the author to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the author, or with status {@code 404 (Not Found)}.
+     * @param id      the id of the author to retrieve.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the author, or with status {@code 304 (Not Modified)}
+     * if the client already has it, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/authors/{id}")
-    public ResponseEntity<Author> getAuthor(@PathVariable Long id) {
+    public ResponseEntity<AuthorDTO> getAuthor(@PathVariable Long id, WebRequest request) {
         log.debug("REST request to get Author : {}", id);
-        Optional<Author> author = authorService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(author);
+        EntityState state = authorService.findState(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        return ResponseUtil.wrapOrNotModified(request, state.getETag(), state.getLastModifiedDate(), () -> authorService.findOne(id, state));
     }
 }
@@ -1,5 +1,6 @@
 package dev.flaviojunior;
 
+import dev.flaviojunior.config.LazyLoadingGuard;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import java.lang.annotation.ElementType;
@@ -9,9 +10,11 @@ import java.lang.annotation.Target;
 
 /**
  * Base composite annotation for integration tests.
+ * <p>
+ * The {@link LazyLoadingGuard} fails the lazy loads made outside of a transaction.
  */
 @Target(ElementType.TYPE)
 @Retention(RetentionPolicy.RUNTIME)
-@SpringBootTest(classes = LibraryServiceApplication.class)
+@SpringBootTest(classes = { LibraryServiceApplication.class, LazyLoadingGuard.class })
 public @interface IntegrationTest {
 }
@@ -0,0 +1,69 @@
+package dev.flaviojunior.common.service;
+
+import dev.flaviojunior.service.criteria.BookCriteria;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CriteriaShapeTest {
+
+    @Test
+    void shapeIgnoresValues() {
+        BookCriteria first = new BookCriteria();
+        first.title().setContains("lord");
+        first.id().setGreaterThan(10L);
+        BookCriteria second = new BookCriteria();
+        second.title().setContains("hobbit");
+        second.id().setGreaterThan(42L);
+
+        assertThat(CriteriaShape.of(first)).isEqualTo(CriteriaShape.of(second)).isNotEmpty();
+    }
+
+    @Test
+    void shapeDependsOnOperators() {
+        BookCriteria contains = new BookCriteria();
+        contains.title().setContains("lord");
+        BookCriteria equals = new BookCriteria();
+        equals.title().setEquals("lord");
+        BookCriteria specified = new BookCriteria();
+        specified.title().setSpecified(true);
+        BookCriteria notSpecified = new BookCriteria();
+        notSpecified.title().setSpecified(false);
+
+        assertThat(Arrays.asList(CriteriaShape.of(contains), CriteriaShape.of(equals), CriteriaShape.of(specified), CriteriaShape.of(notSpecified)))
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    void shapePadsInLists() {
+        BookCriteria three = new BookCriteria();
+        three.id().setIn(Arrays.asList(1L, 2L, 3L));
+        BookCriteria four = new BookCriteria();
+        four.id().setIn(Arrays.asList(1L, 2L, 3L, 4L));
+        BookCriteria five = new BookCriteria();
+        five.id().setIn(Arrays.asList(1L, 2L, 3L, 4L, 5L));
+
+        assertThat(CriteriaShape.of(three)).isEqualTo(CriteriaShape.of(four));
+        assertThat(CriteriaShape.of(five)).isNotEqualTo(CriteriaShape.of(four));
+    }
+
+    @Test
+    void shapeCountsSearchTerms() {
+        BookCriteria one = new BookCriteria();
+        one.title().setSearch("lord");
+        BookCriteria two = new BookCriteria();
+        two.title().setSearch("lord rings");
+        BookCriteria otherTwo = new BookCriteria();
+        otherTwo.title().setSearch("the hobbit");
+
+        assertThat(CriteriaShape.of(two)).isEqualTo(CriteriaShape.of(otherTwo)).isNotEqualTo(CriteriaShape.of(one));
+    }
+
+    @Test
+    void emptyCriteriaHaveAnEmptyShape() {
+        assertThat(CriteriaShape.of(new BookCriteria())).isEmpty();
+        assertThat(CriteriaShape.of(null)).isEmpty();
+    }
+}
@@ -0,0 +1,112 @@
+package dev.flaviojunior.common.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void initIndex() {
+        index = new InvertedIndex();
+        index.put(1L, "The Lord of the Rings");
+        index.put(2L, "The Hobbit");
+        index.put(3L, "Dom Casmurro");
+        index.put(4L, "Memórias Póstumas de Brás Cubas");
+    }
+
+    @Test
+    void tokenizeLowerCasesAndStripsDiacritics() {
+        assertThat(InvertedIndex.tokenize("Memórias Póstumas, de Brás-Cubas!")).containsExactly("memorias", "postumas", "de", "bras", "cubas");
+        assertThat(InvertedIndex.tokenize(null)).isEmpty();
+    }
+
+    @Test
+    void searchMatchesPrefixes() {
+        assertThat(ids(index.search("ho", 10))).containsExactly(2L);
+        assertThat(ids(index.search("THE", 10))).containsExactly(2L, 1L);
+        assertThat(ids(index.search("xyz", 10))).isEmpty();
+        assertThat(ids(index.search(" ", 10))).isEmpty();
+    }
+
+    @Test
+    void searchMatchesEveryWord() {
+        assertThat(ids(index.search("the ri", 10))).containsExactly(1L);
+        assertThat(ids(index.search("the cas", 10))).isEmpty();
+    }
+
+    @Test
+    void searchIgnoresDiacritics() {
+        assertThat(ids(index.search("postu", 10))).containsExactly(4L);
+        assertThat(ids(index.search("brás", 10))).containsExactly(4L);
+    }
+
+    @Test
+    void searchReturnsLabelsUpToTheLimit() {
+        List<InvertedIndex.Hit> hits = index.search("the", 1);
+
+        assertThat(hits).hasSize(1);
+        assertThat(hits.get(0).getId()).isEqualTo(2L);
+        assertThat(hits.get(0).getLabel()).isEqualTo("The Hobbit");
+    }
+
+    @Test
+    void putReplacesTheText() {
+        index.put(2L, "The Silmarillion");
+
+        assertThat(ids(index.search("hobbit", 10))).isEmpty();
+        assertThat(ids(index.search("silma", 10))).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void removeDropsTheEntry() {
+        index.remove(1L);
+        index.remove(42L);
+
+        assertThat(ids(index.search("the", 10))).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void searchSurvivesCompaction() {
+        for (long id = 100; id < 3000; id++) {
+            index.put(id, "Volume " + id);
+        }
+        for (long id = 100; id < 3000; id++) {
+            index.remove(id);
+        }
+
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(ids(index.search("volume", 10))).isEmpty();
+        assertThat(ids(index.search("the", 10))).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void searchReturnsTheMostRecentlyIndexedFirst() {
+        index.put(1L, "The Return of the King");
+
+        assertThat(ids(index.search("the", 10))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void searchIntersectsPrefixesMatchingManyWords() {
+        for (long id = 100; id < 1100; id++) {
+            index.put(id, "Volume " + id + (id % 100 == 0 ? " of the collection" : ""));
+        }
+
+        assertThat(ids(index.search("vol 1", 10))).containsExactly(1099L, 1098L, 1097L, 1096L, 1095L, 1094L, 1093L, 1092L, 1091L, 1090L);
+        assertThat(ids(index.search("vol the col", 3))).containsExactly(1000L, 900L, 800L);
+        assertThat(ids(index.search("the 10", 10))).containsExactly(1000L, 100L);
+    }
+
+    private static List<Long> ids(List<InvertedIndex.Hit> hits) {
+        return hits.stream().map(InvertedIndex.Hit::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,34 @@
+package dev.flaviojunior.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IsbnUtilTest {
+
+    @Test
+    void normalizeConvertsIsbn10ToIsbn13() {
+        assertThat(IsbnUtil.normalize("0-306-40615-2")).isEqualTo("9780306406157");
+        assertThat(IsbnUtil.normalize("0306406152")).isEqualTo("9780306406157");
+        assertThat(IsbnUtil.normalize("080442957x")).isEqualTo("9780804429573");
+    }
+
+    @Test
+    void normalizeStripsSeparators() {
+        assertThat(IsbnUtil.normalize("978-0 306-40615-7")).isEqualTo("9780306406157");
+    }
+
+    @Test
+    void normalizeKeepsOtherValues() {
+        assertThat(IsbnUtil.normalize("0306406153")).isEqualTo("0306406153");
+        assertThat(IsbnUtil.normalize("aaaaaaaaaa")).isEqualTo("AAAAAAAAAA");
+        assertThat(IsbnUtil.normalize(null)).isNull();
+    }
+
+    @Test
+    void compactStripsSeparatorsWithoutConverting() {
+        assertThat(IsbnUtil.compact("0-306-40615-2")).isEqualTo("0306406152");
+        assertThat(IsbnUtil.compact("080442957x")).isEqualTo("080442957X");
+        assertThat(IsbnUtil.compact(null)).isNull();
+    }
+}
@@ -0,0 +1,35 @@
+package dev.flaviojunior.common.web.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementStatisticsFilterTest {
+
+    @Test
+    void addsTheRowCountWhenRowsAreCounted() throws Exception {
+        MockHttpServletResponse response = filter(true);
+
+        assertThat(response.getHeader(StatementStatisticsFilter.STATEMENT_COUNT_HEADER)).isEqualTo("0");
+        assertThat(response.getHeader(StatementStatisticsFilter.ROW_COUNT_HEADER)).isEqualTo("0");
+    }
+
+    @Test
+    void omitsTheRowCountWhenRowsAreNotCounted() throws Exception {
+        MockHttpServletResponse response = filter(false);
+
+        assertThat(response.getHeader(StatementStatisticsFilter.STATEMENT_COUNT_HEADER)).isEqualTo("0");
+        assertThat(response.containsHeader(StatementStatisticsFilter.ROW_COUNT_HEADER)).isFalse();
+    }
+
+    private static MockHttpServletResponse filter(boolean countRows) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new StatementStatisticsFilter(new SimpleMeterRegistry(), countRows)
+            .doFilter(new MockHttpServletRequest("GET", "/api/books"), response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,52 @@
+package dev.flaviojunior.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Fails the lazy loads made outside of a transaction.
+ * <p>
+ * Open session in view is disabled, so a relationship which is not part of the fetch plan of a use case fails when it
+ * is read after the transaction. This guard also fails it when a session is still open, like with open session in
+ * view or a session opened by the test, so the fetch plans are checked whatever the configuration.
+ */
+public class LazyLoadingGuard implements HibernatePropertiesCustomizer {
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(
+            "hibernate.integrator_provider",
+            (IntegratorProvider) () -> Collections.singletonList(new LazyLoadingGuardIntegrator())
+        );
+    }
+
+    private static final class LazyLoadingGuardIntegrator implements Integrator {
+
+        @Override
+        public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+            InitializeCollectionEventListener listener = LazyLoadingGuard::checkTransaction;
+            serviceRegistry.getService(EventListenerRegistry.class).prependListeners(EventType.INIT_COLLECTION, listener);
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {}
+    }
+
+    private static void checkTransaction(InitializeCollectionEvent event) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Lazy load of " + event.getCollection().getRole() + " outside of a transaction");
+        }
+    }
+}
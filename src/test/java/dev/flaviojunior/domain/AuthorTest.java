@@ -20,4 +20,24 @@ class AuthorTest {
         author1.setId(null);
         assertThat(author1).isNotEqualTo(author2);
     }
+
+    @Test
+    void authorStaysInTheAuthorsOfItsBookWhenRenamed() {
+        Author author = new Author().firstName("Jane").lastName("Doe");
+        author.setId(1L);
+        Book book = new Book().isbn("9780306406157");
+        book.addAuthor(author);
+
+        author.setFirstName("Janet");
+        author.setLastName("Smith");
+
+        assertThat(book.getAuthors()).contains(author);
+        // A copy with the same id is the same author, whatever its name
+        Author copy = new Author().firstName("Jane").lastName("Doe");
+        copy.setId(author.getId());
+        assertThat(copy).isEqualTo(author).hasSameHashCodeAs(author);
+        assertThat(book.getAuthors()).contains(copy);
+        book.removeAuthor(copy);
+        assertThat(book.getAuthors()).isEmpty();
+    }
 }
@@ -20,4 +20,26 @@ class BookTest {
         book1.setId(null);
         assertThat(book1).isNotEqualTo(book2);
     }
+
+    @Test
+    void bookStaysInTheSetsOfItsAuthorAndCategoryWhenPersistedAndUpdated() {
+        Book book = new Book().title("Title").isbn("978-0-306-40615-7");
+        Author author = new Author().firstName("Jane").lastName("Doe");
+        Category category = new Category().name("Science");
+        book.addAuthor(author).addCategory(category);
+
+        // The id is allocated on persist, after the book was added to the sets of its author and category
+        book.setId(1L);
+        book.setIsbn("979-10-90636-07-1");
+        book.setTitle("Other title");
+
+        assertThat(author.getBooks()).contains(book);
+        assertThat(category.getBooks()).contains(book);
+        Book copy = new Book().title("Title").isbn("978-0-306-40615-7");
+        copy.setId(book.getId());
+        assertThat(copy).isEqualTo(book);
+        book.removeAuthor(author).removeCategory(category);
+        assertThat(author.getBooks()).isEmpty();
+        assertThat(category.getBooks()).isEmpty();
+    }
 }
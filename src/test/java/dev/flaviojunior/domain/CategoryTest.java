@@ -20,4 +20,19 @@ class CategoryTest {
         category1.setId(null);
         assertThat(category1).isNotEqualTo(category2);
     }
+
+    @Test
+    void categoryLinkedBeforePersistStaysInTheCategoriesOfItsBookWhenRenamed() {
+        Category category = new Category().name("Science");
+        Book book = new Book().isbn("9780306406157");
+        book.addCategory(category);
+
+        category.setId(1L);
+        category.setName("Natural sciences");
+
+        assertThat(book.getCategories()).contains(category);
+        book.removeCategory(category);
+        assertThat(book.getCategories()).isEmpty();
+        assertThat(category.getBooks()).isEmpty();
+    }
 }
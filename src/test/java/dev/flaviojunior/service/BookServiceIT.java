@@ -0,0 +1,72 @@
+package dev.flaviojunior.service;
+
+import dev.flaviojunior.IntegrationTest;
+import dev.flaviojunior.domain.Author;
+import dev.flaviojunior.domain.Book;
+import dev.flaviojunior.domain.Category;
+import dev.flaviojunior.web.rest.AuthorResourceIT;
+import dev.flaviojunior.web.rest.BookResourceIT;
+import dev.flaviojunior.web.rest.CategoryResourceIT;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link BookService}.
+ */
+@IntegrationTest
+@Transactional
+class BookServiceIT {
+
+    private static final int BOOKS = 20;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private EntityManager em;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void init() {
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void saveAllBatchesInserts() {
+        Author author = AuthorResourceIT.createEntity(em);
+        em.persist(author);
+        Category category = CategoryResourceIT.createEntity(em);
+        em.persist(category);
+        em.flush();
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(BookResourceIT.createEntity(em).isbn("BATCH-" + i).addAuthor(author).addCategory(category));
+        }
+        statistics.clear();
+
+        bookService.saveAll(books);
+        em.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(BOOKS);
+        // One sequence call at most, then one batch for each of book, book_author and book_category
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4L);
+    }
+}
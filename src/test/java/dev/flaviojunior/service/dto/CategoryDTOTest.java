@@ -0,0 +1,24 @@
+package dev.flaviojunior.service.dto;
+
+import dev.flaviojunior.web.rest.TestUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategoryDTOTest {
+
+    @Test
+    void dtoEqualsVerifier() throws Exception {
+        TestUtil.equalsVerifier(CategoryDTO.class);
+        CategoryDTO categoryDTO1 = new CategoryDTO();
+        categoryDTO1.setId(1L);
+        CategoryDTO categoryDTO2 = new CategoryDTO();
+        assertThat(categoryDTO1).isNotEqualTo(categoryDTO2);
+        categoryDTO2.setId(categoryDTO1.getId());
+        assertThat(categoryDTO1).isEqualTo(categoryDTO2);
+        categoryDTO2.setId(2L);
+        assertThat(categoryDTO1).isNotEqualTo(categoryDTO2);
+        categoryDTO1.setId(null);
+        assertThat(categoryDTO1).isNotEqualTo(categoryDTO2);
+    }
+}
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
@@ -157,6 +158,7 @@ class AuthorResourceIT {
         restAuthorMockMvc
                 .perform(get(ENTITY_API_URL + "?sort=id,desc"))
                 .andExpect(status().isOk())
+                .andExpect(TestUtil.statementCountAtMost(2))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(jsonPath("$.[*].id").value(hasItem(author.getId().intValue())))
                 .andExpect(jsonPath("$.[*].firstName").value(hasItem(DEFAULT_FIRST_NAME)))
@@ -173,12 +175,43 @@ class AuthorResourceIT {
         restAuthorMockMvc
                 .perform(get(ENTITY_API_URL_ID, author.getId()))
                 .andExpect(status().isOk())
+                .andExpect(TestUtil.statementCountAtMost(2))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(jsonPath("$.id").value(author.getId().intValue()))
                 .andExpect(jsonPath("$.firstName").value(DEFAULT_FIRST_NAME))
                 .andExpect(jsonPath("$.lastName").value(DEFAULT_LAST_NAME));
     }
 
+    @Test
+    @Transactional
+    void getAuthorIsNotModified() throws Exception {
+        // Initialize the database
+        authorRepository.saveAndFlush(author);
+
+        String eTag = restAuthorMockMvc
+                .perform(get(ENTITY_API_URL_ID, author.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotNull();
+
+        restAuthorMockMvc
+                .perform(get(ENTITY_API_URL_ID, author.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // Update the author
+        author.setFirstName(UPDATED_FIRST_NAME);
+        authorRepository.saveAndFlush(author);
+
+        restAuthorMockMvc
+                .perform(get(ENTITY_API_URL_ID, author.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value(UPDATED_FIRST_NAME));
+    }
+
     @Test
     @Transactional
     void getNonExistingAuthor() throws Exception {
@@ -216,6 +249,94 @@ class AuthorResourceIT {
         assertThat(testAuthor.getLastName()).isEqualTo(UPDATED_LAST_NAME);
     }
 
+    @Test
+    @Transactional
+    void putAuthorWithStaleVersion() throws Exception {
+        // Initialize the database
+        authorRepository.saveAndFlush(author);
+
+        Author updatedAuthor = authorRepository.findById(author.getId()).get();
+        em.detach(updatedAuthor);
+        updatedAuthor.firstName(UPDATED_FIRST_NAME);
+
+        // Another client updates the author in the meantime
+        Author concurrentAuthor = authorRepository.findById(author.getId()).get();
+        concurrentAuthor.setLastName(UPDATED_LAST_NAME);
+        authorRepository.saveAndFlush(concurrentAuthor);
+
+        restAuthorMockMvc
+                .perform(
+                        put(ENTITY_API_URL_ID, updatedAuthor.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(TestUtil.convertObjectToJsonBytes(updatedAuthor))
+                )
+                .andExpect(status().isConflict());
+
+        assertThat(authorRepository.findById(author.getId()).get().getFirstName()).isEqualTo(DEFAULT_FIRST_NAME);
+    }
+
+    @Test
+    @Transactional
+    void putAuthorWithIfMatch() throws Exception {
+        // Initialize the database
+        authorRepository.saveAndFlush(author);
+
+        String eTag = restAuthorMockMvc
+                .perform(get(ENTITY_API_URL_ID, author.getId()))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        Author updatedAuthor = authorRepository.findById(author.getId()).get();
+        em.detach(updatedAuthor);
+        updatedAuthor.firstName(UPDATED_FIRST_NAME);
+
+        restAuthorMockMvc
+                .perform(
+                        put(ENTITY_API_URL_ID, updatedAuthor.getId())
+                                .header(HttpHeaders.IF_MATCH, eTag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(TestUtil.convertObjectToJsonBytes(updatedAuthor))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value(UPDATED_FIRST_NAME));
+
+        // The tag has changed with the update
+        updatedAuthor.lastName(UPDATED_LAST_NAME);
+        restAuthorMockMvc
+                .perform(
+                        put(ENTITY_API_URL_ID, updatedAuthor.getId())
+                                .header(HttpHeaders.IF_MATCH, eTag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(TestUtil.convertObjectToJsonBytes(updatedAuthor))
+                )
+                .andExpect(status().isConflict());
+
+        assertThat(authorRepository.findById(author.getId()).get().getLastName()).isEqualTo(DEFAULT_LAST_NAME);
+    }
+
+    @Test
+    @Transactional
+    void partialUpdateAuthorWithMergePatch() throws Exception {
+        // Initialize the database
+        authorRepository.saveAndFlush(author);
+
+        restAuthorMockMvc
+                .perform(
+                        patch(ENTITY_API_URL_ID, author.getId())
+                                .contentType("application/merge-patch+json")
+                                .content("{\"firstName\": \"" + UPDATED_FIRST_NAME + "\"}")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value(UPDATED_FIRST_NAME))
+                .andExpect(jsonPath("$.lastName").value(DEFAULT_LAST_NAME));
+
+        // Validate the Author in the database
+        Author testAuthor = authorRepository.findById(author.getId()).get();
+        assertThat(testAuthor.getFirstName()).isEqualTo(UPDATED_FIRST_NAME);
+        assertThat(testAuthor.getLastName()).isEqualTo(DEFAULT_LAST_NAME);
+    }
+
     @Test
     @Transactional
     void putNonExistingAuthor() throws Exception {
@@ -1,11 +1,21 @@
 package dev.flaviojunior.web.rest;
 
 import dev.flaviojunior.IntegrationTest;
+import dev.flaviojunior.aop.metrics.QueryMetricsAspect;
+import dev.flaviojunior.common.service.CriteriaShape;
 import dev.flaviojunior.domain.Author;
 import dev.flaviojunior.domain.Book;
 import dev.flaviojunior.domain.Category;
+import dev.flaviojunior.repository.AuthorRepository;
 import dev.flaviojunior.repository.BookRepository;
 import dev.flaviojunior.service.BookService;
+import dev.flaviojunior.service.CatalogVersion;
+import dev.flaviojunior.service.IsbnKeyBackfillService;
+import dev.flaviojunior.service.criteria.BookCriteria;
+import dev.flaviojunior.service.dto.BookDTO;
+import dev.flaviojunior.service.dto.CategoryDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,20 +24,38 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.persistence.EntityManager;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -65,15 +93,33 @@ class BookResourceIT {
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private AuthorRepository authorRepository;
+
     @Mock
     private BookRepository bookRepositoryMock;
 
     @Mock
     private BookService bookServiceMock;
 
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private IsbnKeyBackfillService isbnKeyBackfillService;
+
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Autowired
     private MockMvc restBookMockMvc;
 
@@ -114,6 +160,8 @@ class BookResourceIT {
     @BeforeEach
     public void initTest() {
         book = createEntity(em);
+        // The books of these tests are saved with the repository, which does not change the catalog version
+        catalogVersion.increment();
     }
 
     @Test
@@ -198,6 +246,7 @@ class BookResourceIT {
         restBookMockMvc
                 .perform(get(ENTITY_API_URL + "?sort=id,desc"))
                 .andExpect(status().isOk())
+                .andExpect(TestUtil.statementCountAtMost(3))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(jsonPath("$.[*].id").value(hasItem(book.getId().intValue())))
                 .andExpect(jsonPath("$.[*].title").value(hasItem(DEFAULT_TITLE)))
@@ -207,6 +256,154 @@ class BookResourceIT {
                 .andExpect(jsonPath("$.[*].dateOfPublication").value(hasItem(DEFAULT_DATE_OF_PUBLICATION.toString())));
     }
 
+    @Test
+    @Transactional
+    void countBooksIsCachedUntilTheCatalogChanges() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+        long databaseSize = bookRepository.count();
+
+        restBookMockMvc
+                .perform(get(ENTITY_API_URL + "/count"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(String.valueOf(databaseSize)));
+
+        // Saved without the service, so the cached count is returned
+        bookRepository.saveAndFlush(createUpdatedEntity(em));
+        restBookMockMvc
+                .perform(get(ENTITY_API_URL + "/count"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(String.valueOf(databaseSize)));
+
+        catalogVersion.increment();
+        restBookMockMvc
+                .perform(get(ENTITY_API_URL + "/count"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(String.valueOf(databaseSize + 1)));
+    }
+
+    @Test
+    @Transactional
+    void countBooksSeesTheWritesOfAnotherInstanceInTheNextWindow() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+        long databaseSize = bookRepository.count();
+
+        restBookMockMvc
+                .perform(get(ENTITY_API_URL + "/count"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(String.valueOf(databaseSize)));
+
+        // Another instance saves a book, which does not change the version of this one
+        bookRepository.saveAndFlush(createUpdatedEntity(em));
+        restBookMockMvc
+                .perform(get(ENTITY_API_URL + "/count"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(String.valueOf(databaseSize)));
+
+        inNextStalenessWindow(() ->
+            restBookMockMvc
+                    .perform(get(ENTITY_API_URL + "/count"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(String.valueOf(databaseSize + 1)))
+        );
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksWithRelationships() throws Exception {
+        // Initialize the database
+        Author author = AuthorResourceIT.createEntity(em);
+        em.persist(author);
+        Category category = CategoryResourceIT.createEntity(em);
+        em.persist(category);
+        book.addAuthor(author);
+        book.addCategory(category);
+        bookRepository.saveAndFlush(book);
+        em.clear();
+
+        // The relationships are loaded with the page, and not lazily during the serialization
+        restBookMockMvc
+                .perform(get(ENTITY_API_URL + "?id.equals=" + book.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$.[0].authors.[*].id").value(hasItem(author.getId().intValue())))
+                .andExpect(jsonPath("$.[0].categories.[*].id").value(hasItem(category.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksByCursor() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+        Book otherBook = createEntity(em).isbn(UPDATED_ISBN);
+        bookRepository.saveAndFlush(otherBook);
+
+        // Get the first slice, which must link to the next one
+        MvcResult result = restBookMockMvc
+                .perform(get(ENTITY_API_URL + "?cursor=&size=1&sort=id,asc&title.equals=" + DEFAULT_TITLE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$.[*].id").value(hasItem(book.getId().intValue())))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+                .andReturn();
+        Matcher next = Pattern.compile("<([^>]*)>; rel=\"next\"").matcher(result.getResponse().getHeader(HttpHeaders.LINK));
+        assertThat(next.find()).isTrue();
+
+        // Follow the next link, which is the last slice
+        restBookMockMvc
+                .perform(get(URI.create(next.group(1))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$.[*].id").value(hasItem(otherBook.getId().intValue())))
+                .andExpect(header().string(HttpHeaders.LINK, not(containsString("rel=\"next\""))));
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksWithoutCount() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+
+        restBookMockMvc
+                .perform(get(ENTITY_API_URL + "?count=none&sort=id,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(book.getId().intValue())))
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andExpect(header().string(HttpHeaders.LINK, not(containsString("rel=\"last\""))));
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksWithEstimatedCount() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+
+        restBookMockMvc
+                .perform(get(ENTITY_API_URL + "?count=estimated&sort=id,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(book.getId().intValue())))
+                .andExpect(header().exists("X-Estimated-Total-Count"))
+                .andExpect(header().doesNotExist("X-Total-Count"));
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksWithEstimatedCountAndFilter() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+
+        restBookMockMvc
+                .perform(get(ENTITY_API_URL + "?count=estimated&title.equals=" + DEFAULT_TITLE))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksByMalformedCursor() throws Exception {
+        restBookMockMvc.perform(get(ENTITY_API_URL + "?cursor=@@@")).andExpect(status().isBadRequest());
+    }
+
     @SuppressWarnings({"unchecked"})
     void getAllBooksWithEagerRelationshipsIsEnabled() throws Exception {
         when(bookServiceMock.findAllWithEagerRelationships(any())).thenReturn(new PageImpl(new ArrayList<>()));
@@ -235,6 +432,7 @@ class BookResourceIT {
         restBookMockMvc
                 .perform(get(ENTITY_API_URL_ID, book.getId()))
                 .andExpect(status().isOk())
+                .andExpect(TestUtil.statementCountAtMost(2))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(jsonPath("$.id").value(book.getId().intValue()))
                 .andExpect(jsonPath("$.title").value(DEFAULT_TITLE))
@@ -244,6 +442,221 @@ class BookResourceIT {
                 .andExpect(jsonPath("$.dateOfPublication").value(DEFAULT_DATE_OF_PUBLICATION.toString()));
     }
 
+    @Test
+    void getBookOutsideOfATransaction() throws Exception {
+        // Not transactional: the requests run in their own transactions and open session in view is disabled, so the
+        // authors and categories must be part of the fetch plan of each endpoint
+        Author author = authorRepository.saveAndFlush(AuthorResourceIT.createEntity(em));
+        book.isbn("LAZY" + count.incrementAndGet());
+        book.addAuthor(author);
+        book.addCategory(CategoryResourceIT.createEntity(em));
+        bookRepository.saveAndFlush(book);
+        try {
+            restBookMockMvc
+                    .perform(get(ENTITY_API_URL_ID, book.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.authors.[*].id").value(hasItem(author.getId().intValue())))
+                    .andExpect(jsonPath("$.categories", hasSize(1)));
+            restBookMockMvc
+                    .perform(get(ENTITY_API_URL + "?id.equals=" + book.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.[0].authors.[*].id").value(hasItem(author.getId().intValue())))
+                    .andExpect(jsonPath("$.[0].categories", hasSize(1)));
+            restBookMockMvc
+                    .perform(get("/api/library/books/{isbn}/isbn", book.getIsbn()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.authors.[*].id").value(hasItem(author.getId().intValue())))
+                    .andExpect(jsonPath("$.categories", hasSize(1)));
+        } finally {
+            // The categories are deleted with the book
+            bookRepository.deleteById(book.getId());
+            authorRepository.deleteById(author.getId());
+            catalogVersion.increment();
+        }
+    }
+
+    @Test
+    @Transactional
+    void getBookSavedWithoutIsbnKeyByHyphenatedAndUnhyphenatedIsbn() throws Exception {
+        // Initialize the database with a book saved before the canonical isbn existed
+        book.isbn("978-0-306-40615-7");
+        bookRepository.saveAndFlush(book);
+        em.createNativeQuery("update book set isbn_key = null where id = :id").setParameter("id", book.getId()).executeUpdate();
+        em.clear();
+
+        isbnKeyBackfillService.backfill();
+
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getIsbnKey()).isEqualTo("9780306406157");
+        restBookMockMvc
+                .perform(get("/api/library/books/{isbn}/isbn", "978-0-306-40615-7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(book.getId().intValue()));
+        restBookMockMvc
+                .perform(get("/api/library/books/{isbn}/isbn", "9780306406157"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(book.getId().intValue()));
+    }
+
+    @Test
+    void getBookWrittenByAnotherInstance() throws Exception {
+        // Not transactional: the book is only put in the second-level cache once its transaction commits
+        book.isbn("STALE" + count.incrementAndGet());
+        bookRepository.saveAndFlush(book);
+        try {
+            restBookMockMvc.perform(get(ENTITY_API_URL_ID, book.getId())).andExpect(status().isOk());
+
+            // Another instance updates the book, which stays in the cache of this one
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                jdbcTemplate.update("update book set title = ?, version = version + 1 where id = ?", UPDATED_TITLE, book.getId())
+            );
+
+            restBookMockMvc
+                    .perform(get(ENTITY_API_URL_ID, book.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.title").value(UPDATED_TITLE))
+                    .andExpect(jsonPath("$.version").value(book.getVersion() + 1));
+        } finally {
+            bookRepository.deleteById(book.getId());
+            catalogVersion.increment();
+        }
+    }
+
+    @Test
+    @Transactional
+    void getAllBookFields() throws Exception {
+        // Initialize the database
+        Author author = AuthorResourceIT.createEntity(em);
+        em.persist(author);
+        book.addAuthor(author);
+        bookRepository.saveAndFlush(book);
+
+        // Only the requested fields are returned
+        restBookMockMvc
+                .perform(get(ENTITY_API_URL + "?sort=id,desc&fields=title,isbn&id.equals=" + book.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$.[0].id").value(book.getId().intValue()))
+                .andExpect(jsonPath("$.[0].title").value(DEFAULT_TITLE))
+                .andExpect(jsonPath("$.[0].isbn").value(DEFAULT_ISBN))
+                .andExpect(jsonPath("$.[0].publisher").doesNotExist())
+                .andExpect(jsonPath("$.[0].authors").doesNotExist());
+
+        // The relationships are loaded when requested
+        restBookMockMvc
+                .perform(get(ENTITY_API_URL + "?sort=id,desc&fields=authors,categories&id.equals=" + book.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].title").doesNotExist())
+                .andExpect(jsonPath("$.[0].authors.[*].id").value(hasItem(author.getId().intValue())))
+                .andExpect(jsonPath("$.[0].categories").isEmpty());
+
+        restBookMockMvc.perform(get(ENTITY_API_URL + "?fields=title,unknown")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getBookIsNotModified() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+
+        String eTag = restBookMockMvc
+                .perform(get(ENTITY_API_URL_ID, book.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        restBookMockMvc
+                .perform(get(ENTITY_API_URL_ID, book.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+
+        // A new category changes the representation of the book
+        Category category = CategoryResourceIT.createEntity(em);
+        em.persist(category);
+        book.addCategory(category);
+        bookRepository.saveAndFlush(book);
+
+        restBookMockMvc
+                .perform(get(ENTITY_API_URL_ID, book.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.categories.[*].id").value(hasItem(category.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksIsNotModifiedUntilTheCatalogChanges() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+
+        String eTag = restBookMockMvc
+                .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        restBookMockMvc
+                .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        catalogVersion.increment();
+        restBookMockMvc
+                .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(book.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksSeesTheWritesOfAnotherInstanceInTheNextWindow() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+
+        String eTag = restBookMockMvc
+                .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        // Another instance writes to the catalog, which does not change the version of this one
+        bookRepository.saveAndFlush(createUpdatedEntity(em));
+        restBookMockMvc
+                .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        inNextStalenessWindow(() ->
+            restBookMockMvc
+                    .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+                    .andExpect(jsonPath("$.[*].title").value(hasItem(UPDATED_TITLE)))
+        );
+    }
+
+    /**
+     * Run requests once the staleness window of the catalog version has passed.
+     */
+    private void inNextStalenessWindow(ThrowingRunnable requests) throws Exception {
+        Clock clock = (Clock) ReflectionTestUtils.getField(catalogVersion, "clock");
+        ReflectionTestUtils.setField(catalogVersion, "clock", Clock.offset(clock, Duration.ofHours(1)));
+        try {
+            requests.run();
+        } finally {
+            ReflectionTestUtils.setField(catalogVersion, "clock", clock);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
     @Test
     @Transactional
     void getBooksByIdFiltering() throws Exception {
@@ -275,6 +688,30 @@ class BookResourceIT {
         defaultBookShouldNotBeFound("title.equals=" + UPDATED_TITLE);
     }
 
+    @Test
+    @Transactional
+    void getAllBooksIsTimedByCriteriaShape() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+        BookCriteria criteria = new BookCriteria();
+        criteria.title().setEquals(DEFAULT_TITLE);
+        long before = bookQueryCount(CriteriaShape.of(criteria));
+
+        restBookMockMvc.perform(get(ENTITY_API_URL + "?title.equals=" + DEFAULT_TITLE)).andExpect(status().isOk());
+
+        assertThat(bookQueryCount(CriteriaShape.of(criteria))).isGreaterThan(before);
+    }
+
+    private long bookQueryCount(String shape) {
+        return meterRegistry
+                .find(QueryMetricsAspect.METRIC_NAME)
+                .tags("service", "BookQueryService", "shape", shape)
+                .timers()
+                .stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+
     @Test
     @Transactional
     void getAllBooksByTitleIsNotEqualToSomething() throws Exception {
@@ -340,6 +777,45 @@ class BookResourceIT {
         defaultBookShouldBeFound("title.doesNotContain=" + UPDATED_TITLE);
     }
 
+    @Test
+    @Transactional
+    void getAllBooksByTitleIsSearched() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+
+        // Get all the bookList where title matches the words of DEFAULT_TITLE
+        defaultBookShouldBeFound("title.search=" + DEFAULT_TITLE.toLowerCase());
+
+        // Get all the bookList where title matches the words of UPDATED_TITLE
+        defaultBookShouldNotBeFound("title.search=" + UPDATED_TITLE);
+
+        // Get all the bookList where title matches every word
+        defaultBookShouldNotBeFound("title.search=" + DEFAULT_TITLE + " " + UPDATED_TITLE);
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksSearchedByRelevance() throws Exception {
+        // Initialize the database, the less relevant book first
+        bookRepository.saveAndFlush(createEntity(em).title("Learning Java").isbn(DEFAULT_ISBN));
+        Book relevantBook = bookRepository.saveAndFlush(createEntity(em).title("Java Persistence").isbn(UPDATED_ISBN));
+
+        restBookMockMvc
+                .perform(get(ENTITY_API_URL + "?title.search=java&sort=relevance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].id").value(relevantBook.getId().intValue()))
+                .andExpect(jsonPath("$.[1].title").value("Learning Java"));
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksByRelevanceWithoutSearch() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+
+        restBookMockMvc.perform(get(ENTITY_API_URL + "?title.equals=" + DEFAULT_TITLE + "&sort=relevance")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getAllBooksByIsbnIsEqualToSomething() throws Exception {
@@ -803,6 +1279,209 @@ class BookResourceIT {
         assertThat(testBook.getDateOfPublication()).isEqualTo(UPDATED_DATE_OF_PUBLICATION);
     }
 
+    @Test
+    @Transactional
+    void putBookWithStaleVersion() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+
+        Book updatedBook = bookRepository.findById(book.getId()).get();
+        em.detach(updatedBook);
+        updatedBook.title(UPDATED_TITLE);
+
+        // Another client updates the book in the meantime
+        Book concurrentBook = bookRepository.findById(book.getId()).get();
+        concurrentBook.setPublisher(UPDATED_PUBLISHER);
+        bookRepository.saveAndFlush(concurrentBook);
+
+        restBookMockMvc
+                .perform(
+                        put(ENTITY_API_URL_ID, updatedBook.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(TestUtil.convertObjectToJsonBytes(updatedBook))
+                )
+                .andExpect(status().isConflict());
+
+        assertThat(bookRepository.findById(book.getId()).get().getTitle()).isEqualTo(DEFAULT_TITLE);
+    }
+
+    @Test
+    @Transactional
+    void putBookWithoutVersion() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setId(book.getId());
+        bookDTO.setTitle(UPDATED_TITLE);
+        bookDTO.setIsbn(DEFAULT_ISBN);
+
+        restBookMockMvc
+                .perform(
+                        put(ENTITY_API_URL_ID, book.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(TestUtil.convertObjectToJsonBytes(bookDTO))
+                )
+                .andExpect(status().isPreconditionRequired());
+
+        assertThat(bookRepository.findById(book.getId()).get().getTitle()).isEqualTo(DEFAULT_TITLE);
+    }
+
+    @Test
+    @Transactional
+    void putBookReferringToCategoriesById() throws Exception {
+        // Initialize the database, the category and the book are then updated, so neither has the version 0
+        String renamedCategory = "Renamed category";
+        Category category = CategoryResourceIT.createEntity(em);
+        em.persist(category);
+        em.flush();
+        category.setName(renamedCategory);
+        bookRepository.saveAndFlush(book.addCategory(category));
+        book.setPublisher(UPDATED_PUBLISHER);
+        em.flush();
+
+        // The category is referred to by id only
+        CategoryDTO categoryDTO = new CategoryDTO();
+        categoryDTO.setId(category.getId());
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setId(book.getId());
+        bookDTO.setVersion(book.getVersion());
+        bookDTO.setTitle(UPDATED_TITLE);
+        bookDTO.setIsbn(DEFAULT_ISBN);
+        bookDTO.setCategories(Collections.singleton(categoryDTO));
+
+        restBookMockMvc
+                .perform(
+                        put(ENTITY_API_URL_ID, book.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(TestUtil.convertObjectToJsonBytes(bookDTO))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value(UPDATED_TITLE));
+
+        // The category is linked, and not overwritten by its reference
+        em.flush();
+        em.clear();
+        Book testBook = bookRepository.findOneWithEagerRelationships(book.getId()).orElseThrow();
+        assertThat(testBook.getTitle()).isEqualTo(UPDATED_TITLE);
+        assertThat(testBook.getCategories()).extracting(Category::getName).containsExactly(renamedCategory);
+    }
+
+    @Test
+    @Transactional
+    void saveDetachedBookMergesItsCategories() {
+        // Initialize the database, the category is persisted with the book
+        Category category = CategoryResourceIT.createEntity(em);
+        bookRepository.saveAndFlush(book.addCategory(category));
+        em.clear();
+
+        // The categories of a detached book are merged with it
+        String renamedCategory = "Renamed category";
+        category.setName(renamedCategory);
+        bookRepository.saveAndFlush(book.title(UPDATED_TITLE));
+        em.clear();
+
+        Book testBook = bookRepository.findOneWithEagerRelationships(book.getId()).orElseThrow();
+        assertThat(testBook.getTitle()).isEqualTo(UPDATED_TITLE);
+        assertThat(testBook.getCategories()).extracting(Category::getName).containsExactly(renamedCategory);
+    }
+
+    @Test
+    @Transactional
+    void putBookWithWeakIfMatch() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+
+        String eTag = restBookMockMvc
+                .perform(get(ENTITY_API_URL_ID, book.getId()))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).doesNotStartWith("W/");
+
+        Book updatedBook = bookRepository.findById(book.getId()).get();
+        em.detach(updatedBook);
+        updatedBook.title(UPDATED_TITLE);
+
+        // If-Match uses the strong comparison, which a weak tag never passes
+        restBookMockMvc
+                .perform(
+                        put(ENTITY_API_URL_ID, updatedBook.getId())
+                                .header(HttpHeaders.IF_MATCH, "W/" + eTag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(TestUtil.convertObjectToJsonBytes(updatedBook))
+                )
+                .andExpect(status().isConflict());
+
+        restBookMockMvc
+                .perform(
+                        put(ENTITY_API_URL_ID, updatedBook.getId())
+                                .header(HttpHeaders.IF_MATCH, eTag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(TestUtil.convertObjectToJsonBytes(updatedBook))
+                )
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @Transactional
+    void partialUpdateBookWithMergePatch() throws Exception {
+        // Initialize the database
+        Author author = AuthorResourceIT.createEntity(em);
+        em.persist(author);
+        Author otherAuthor = AuthorResourceIT.createEntity(em);
+        em.persist(otherAuthor);
+        book.addAuthor(author);
+        bookRepository.saveAndFlush(book);
+
+        int databaseSizeBeforeUpdate = bookRepository.findAll().size();
+
+        String mergePatch =
+                "{\"title\": \"" + UPDATED_TITLE + "\", \"publisher\": null, \"authors\": [{\"id\": " + otherAuthor.getId() + "}]}";
+        restBookMockMvc
+                .perform(patch(ENTITY_API_URL_ID, book.getId()).contentType("application/merge-patch+json").content(mergePatch))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value(UPDATED_TITLE))
+                .andExpect(jsonPath("$.authors.[*].id").value(hasSize(1)))
+                .andExpect(jsonPath("$.authors.[0].id").value(otherAuthor.getId().intValue()));
+        em.flush();
+        em.clear();
+
+        // Validate the Book in the database
+        assertThat(bookRepository.findAll()).hasSize(databaseSizeBeforeUpdate);
+        Book testBook = bookRepository.findOneWithEagerRelationships(book.getId()).get();
+        assertThat(testBook.getTitle()).isEqualTo(UPDATED_TITLE);
+        assertThat(testBook.getIsbn()).isEqualTo(DEFAULT_ISBN);
+        assertThat(testBook.getPublisher()).isNull();
+        assertThat(testBook.getAuthors()).extracting(Author::getId).containsExactly(otherAuthor.getId());
+    }
+
+    @Test
+    @Transactional
+    void partialUpdateBookWithInvalidPatch() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+
+        // The authors must exist
+        restBookMockMvc
+                .perform(
+                        patch(ENTITY_API_URL_ID, book.getId())
+                                .contentType("application/merge-patch+json")
+                                .content("{\"authors\": [" + Long.MAX_VALUE + "]}")
+                )
+                .andExpect(status().isBadRequest());
+
+        // The book must exist
+        restBookMockMvc
+                .perform(patch(ENTITY_API_URL_ID, Long.MAX_VALUE).contentType("application/merge-patch+json").content("{}"))
+                .andExpect(status().isBadRequest());
+
+        // The title is required
+        restBookMockMvc
+                .perform(patch(ENTITY_API_URL_ID, book.getId()).contentType("application/merge-patch+json").content("{\"title\": null}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void putNonExistingBook() throws Exception {
@@ -876,4 +1555,232 @@ class BookResourceIT {
         List<Book> bookList = bookRepository.findAll();
         assertThat(bookList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    @Transactional
+    void importBooks() throws Exception {
+        int databaseSizeBeforeImport = bookRepository.findAll().size();
+        String csv =
+            "Title,Author,Genre,SubGenre,Height,Publisher,ISBN\n" +
+            "\"Trial, The\",\"Kafka, Frank\",import_fiction,import_classic,198,Random House,0-306-40615-2\n" +
+            "Castle,\"Kafka, Frank\",import_fiction,,200,Penguin,\n" +
+            "Duplicate,\"Kafka, Frank\",import_fiction,,200,Penguin,9780306406157\n";
+        MockMultipartFile file = new MockMultipartFile("file", "books.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+
+        restBookMockMvc
+                .perform(multipart(ENTITY_API_URL + "/import").file(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsRead").value(3))
+                .andExpect(jsonPath("$.booksImported").value(2))
+                .andExpect(jsonPath("$.rowsSkipped").value(1))
+                .andExpect(jsonPath("$.authorsCreated").value(1))
+                .andExpect(jsonPath("$.categoriesCreated").value(2));
+
+        // Validate the Books in the database
+        assertThat(bookRepository.findAll()).hasSize(databaseSizeBeforeImport + 2);
+        Book imported = bookRepository.findOneByIsbnWithEagerRelationships("0-306-40615-2").orElseThrow();
+        assertThat(imported.getTitle()).isEqualTo("Trial, The");
+        assertThat(imported.getIsbnKey()).isEqualTo("9780306406157");
+        assertThat(imported.getAuthors()).extracting(Author::getLastName).containsExactly("Kafka");
+        assertThat(imported.getCategories()).extracting(Category::getName).containsExactlyInAnyOrder("import_fiction", "import_classic");
+    }
+
+    @Test
+    @Transactional
+    void importBooksWithoutTitleColumn() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "books.csv", "text/csv", "Name\nCastle\n".getBytes(StandardCharsets.UTF_8));
+
+        restBookMockMvc.perform(multipart(ENTITY_API_URL + "/import").file(file)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void createBooksInBulk() throws Exception {
+        int databaseSizeBeforeCreate = bookRepository.findAll().size();
+        Book otherBook = createEntity(em).isbn(UPDATED_ISBN);
+        Book invalidBook = createEntity(em).title(null);
+
+        restBookMockMvc
+                .perform(
+                        post(ENTITY_API_URL + "/bulk")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(TestUtil.convertObjectToJsonBytes(Arrays.asList(book, otherBook, invalidBook)))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$.[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.[0].id").isNumber())
+                .andExpect(jsonPath("$.[1].status").value("CREATED"))
+                .andExpect(jsonPath("$.[2].status").value("INVALID"));
+
+        // Validate the Books in the database
+        assertThat(bookRepository.findAll()).hasSize(databaseSizeBeforeCreate + 2);
+    }
+
+    @Test
+    @Transactional
+    void createBooksInBulkAsNdjson() throws Exception {
+        int databaseSizeBeforeCreate = bookRepository.findAll().size();
+        Book otherBook = createEntity(em).isbn(UPDATED_ISBN);
+        String body =
+            new String(TestUtil.convertObjectToJsonBytes(book), StandardCharsets.UTF_8) +
+            "\n" +
+            new String(TestUtil.convertObjectToJsonBytes(otherBook), StandardCharsets.UTF_8) +
+            "\n";
+
+        restBookMockMvc
+                .perform(post(ENTITY_API_URL + "/bulk").contentType(MediaType.APPLICATION_NDJSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$.[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.[1].status").value("CREATED"));
+
+        // Validate the Books in the database
+        assertThat(bookRepository.findAll()).hasSize(databaseSizeBeforeCreate + 2);
+    }
+
+    @Test
+    @Transactional
+    void createBooksInBulkAsInvalidNdjson() throws Exception {
+        int databaseSizeBeforeCreate = bookRepository.findAll().size();
+        String body = new String(TestUtil.convertObjectToJsonBytes(book), StandardCharsets.UTF_8) + "\n{\"title\":\n";
+
+        restBookMockMvc
+                .perform(post(ENTITY_API_URL + "/bulk").contentType(MediaType.APPLICATION_NDJSON).content(body))
+                .andExpect(status().isBadRequest());
+
+        // Validate nothing was created
+        assertThat(bookRepository.findAll()).hasSize(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    @Transactional
+    void updateBooksInBulk() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+        em.detach(book);
+        Book updatedBook = createUpdatedEntity(em).id(book.getId());
+        Book missingBook = createUpdatedEntity(em).id(count.incrementAndGet());
+
+        restBookMockMvc
+                .perform(
+                        put(ENTITY_API_URL + "/bulk")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(TestUtil.convertObjectToJsonBytes(Arrays.asList(updatedBook, missingBook)))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$.[1].status").value("NOT_FOUND"));
+
+        // Validate the Book in the database
+        Book testBook = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(testBook.getTitle()).isEqualTo(UPDATED_TITLE);
+        assertThat(testBook.getIsbn()).isEqualTo(UPDATED_ISBN);
+    }
+
+    @Test
+    @Transactional
+    void updateBooksInBulkWithoutVersion() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+        BookDTO updatedBook = new BookDTO();
+        updatedBook.setId(book.getId());
+        updatedBook.setTitle(UPDATED_TITLE);
+        updatedBook.setIsbn(UPDATED_ISBN);
+
+        restBookMockMvc
+                .perform(
+                        put(ENTITY_API_URL + "/bulk")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(TestUtil.convertObjectToJsonBytes(Collections.singletonList(updatedBook)))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].status").value("INVALID"));
+
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getTitle()).isEqualTo(DEFAULT_TITLE);
+    }
+
+    @Test
+    @Transactional
+    void deleteBooksInBulk() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+        int databaseSizeBeforeDelete = bookRepository.findAll().size();
+
+        restBookMockMvc
+                .perform(
+                        delete(ENTITY_API_URL + "/bulk")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(TestUtil.convertObjectToJsonBytes(Arrays.asList(book.getId(), count.incrementAndGet())))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].status").value("DELETED"))
+                .andExpect(jsonPath("$.[1].status").value("NOT_FOUND"));
+
+        // Validate the database contains one less item
+        assertThat(bookRepository.findAll()).hasSize(databaseSizeBeforeDelete - 1);
+    }
+
+    @Test
+    @Transactional
+    void deleteBooksInBulkAsNdjson() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+        int databaseSizeBeforeDelete = bookRepository.findAll().size();
+
+        restBookMockMvc
+                .perform(
+                        delete(ENTITY_API_URL + "/bulk")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content(book.getId() + "\n" + count.incrementAndGet() + "\n")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].status").value("DELETED"))
+                .andExpect(jsonPath("$.[1].status").value("NOT_FOUND"));
+
+        // Validate the database contains one less item
+        assertThat(bookRepository.findAll()).hasSize(databaseSizeBeforeDelete - 1);
+    }
+
+    @Test
+    void exportBooks() throws Exception {
+        // Initialize the database, the export runs in its own thread and transaction so the book is committed
+        bookRepository.saveAndFlush(book);
+
+        try {
+            MvcResult result = restBookMockMvc.perform(get(ENTITY_API_URL + "/export")).andExpect(request().asyncStarted()).andReturn();
+            restBookMockMvc
+                    .perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                    .andExpect(content().string(containsString("\"isbn\":\"" + DEFAULT_ISBN + "\"")));
+        } finally {
+            bookRepository.deleteById(book.getId());
+        }
+    }
+
+    @Test
+    void exportBooksAsCsv() throws Exception {
+        // Initialize the database, the export runs in its own thread and transaction so the book is committed
+        bookRepository.saveAndFlush(book);
+
+        try {
+            MvcResult result = restBookMockMvc
+                    .perform(get(ENTITY_API_URL + "/export?format=csv"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            restBookMockMvc
+                    .perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(containsString("id,title,isbn,publisher")))
+                    .andExpect(content().string(containsString(book.getId() + "," + DEFAULT_TITLE + "," + DEFAULT_ISBN)));
+        } finally {
+            bookRepository.deleteById(book.getId());
+        }
+    }
+
+    @Test
+    void exportBooksWithUnsupportedFormat() throws Exception {
+        restBookMockMvc.perform(get(ENTITY_API_URL + "/export?format=xml")).andExpect(status().isBadRequest());
+    }
 }
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
@@ -136,6 +137,7 @@ class CategoryResourceIT {
         restCategoryMockMvc
                 .perform(get(ENTITY_API_URL + "?sort=id,desc"))
                 .andExpect(status().isOk())
+                .andExpect(TestUtil.statementCountAtMost(2))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(jsonPath("$.[*].id").value(hasItem(category.getId().intValue())))
                 .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)));
@@ -151,11 +153,42 @@ class CategoryResourceIT {
         restCategoryMockMvc
                 .perform(get(ENTITY_API_URL_ID, category.getId()))
                 .andExpect(status().isOk())
+                .andExpect(TestUtil.statementCountAtMost(2))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(jsonPath("$.id").value(category.getId().intValue()))
                 .andExpect(jsonPath("$.name").value(DEFAULT_NAME));
     }
 
+    @Test
+    @Transactional
+    void getCategoryIsNotModified() throws Exception {
+        // Initialize the database
+        categoryRepository.saveAndFlush(category);
+
+        String eTag = restCategoryMockMvc
+                .perform(get(ENTITY_API_URL_ID, category.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotNull();
+
+        restCategoryMockMvc
+                .perform(get(ENTITY_API_URL_ID, category.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // Update the category
+        category.setName(UPDATED_NAME);
+        categoryRepository.saveAndFlush(category);
+
+        restCategoryMockMvc
+                .perform(get(ENTITY_API_URL_ID, category.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(UPDATED_NAME));
+    }
+
     @Test
     @Transactional
     void getNonExistingCategory() throws Exception {
@@ -192,6 +225,68 @@ class CategoryResourceIT {
         assertThat(testCategory.getName()).isEqualTo(UPDATED_NAME);
     }
 
+    @Test
+    @Transactional
+    void putCategoryWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        categoryRepository.saveAndFlush(category);
+
+        String eTag = restCategoryMockMvc
+                .perform(get(ENTITY_API_URL_ID, category.getId()))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        Category updatedCategory = categoryRepository.findById(category.getId()).get();
+        em.detach(updatedCategory);
+        updatedCategory.name(UPDATED_NAME);
+
+        // Another client updates the category in the meantime
+        Category concurrentCategory = categoryRepository.findById(category.getId()).get();
+        concurrentCategory.setName("CCCCCCCCCC");
+        categoryRepository.saveAndFlush(concurrentCategory);
+
+        restCategoryMockMvc
+                .perform(
+                        put(ENTITY_API_URL_ID, updatedCategory.getId())
+                                .header(HttpHeaders.IF_MATCH, eTag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(TestUtil.convertObjectToJsonBytes(updatedCategory))
+                )
+                .andExpect(status().isConflict());
+
+        assertThat(categoryRepository.findById(category.getId()).get().getName()).isEqualTo("CCCCCCCCCC");
+    }
+
+    @Test
+    @Transactional
+    void partialUpdateCategoryWithStaleVersion() throws Exception {
+        // Initialize the database
+        categoryRepository.saveAndFlush(category);
+        long version = category.getVersion();
+
+        restCategoryMockMvc
+                .perform(
+                        patch(ENTITY_API_URL_ID, category.getId())
+                                .contentType("application/merge-patch+json")
+                                .content("{\"name\": \"" + UPDATED_NAME + "\", \"version\": " + version + "}")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(UPDATED_NAME));
+
+        // The version changes when the update is flushed
+        em.flush();
+        restCategoryMockMvc
+                .perform(
+                        patch(ENTITY_API_URL_ID, category.getId())
+                                .contentType("application/merge-patch+json")
+                                .content("{\"name\": \"CCCCCCCCCC\", \"version\": " + version + "}")
+                )
+                .andExpect(status().isConflict());
+
+        assertThat(categoryRepository.findById(category.getId()).get().getName()).isEqualTo(UPDATED_NAME);
+    }
+
     @Test
     @Transactional
     void putNonExistingCategory() throws Exception {